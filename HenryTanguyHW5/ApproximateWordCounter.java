@@ -0,0 +1,153 @@
+import java.util.*;
+
+//Word counting for text too large to keep every word, in a fixed memory budget
+//Per-word counts come from a CountMinSketch (conservative update) and the number
+//of distinct words from a HyperLogLog; neither stores the words themselves, so
+//memory stays the same whatever the vocabulary size.
+//  count(word)     never below the true count; at most epsilon * totalWords() above
+//                  it, except with probability delta
+//  distinctWords() within a few standard errors (1.04 / sqrt(2^precision)) of the truth
+//
+//Not thread-safe: give each thread or shard its own counter, built with the same
+//parameters and seed, and merge them.
+public class ApproximateWordCounter
+{
+    private final CountMinSketch frequencies;
+    private final HyperLogLog distinct;
+
+    public ApproximateWordCounter(double epsilon, double delta, int precision, long seed)
+    {
+        frequencies = new CountMinSketch(epsilon, delta, seed);
+        distinct = new HyperLogLog(precision, seed);
+    }
+
+    //Insert a word
+    public void put(String word)
+    {
+        frequencies.add(word);
+        distinct.add(word);
+    }
+
+    //Split text into words and count each, as HashMapTextCounter.countWords does
+    public void putText(String text)
+    {
+        for (String word : text.toLowerCase().split("\\W+"))
+        {
+            if (!word.isEmpty()) put(word);
+        }
+    }
+
+    //Estimated count of a word
+    public long count(String word)
+    {
+        return frequencies.estimate(word);
+    }
+
+    public long distinctWords()
+    {
+        return distinct.estimate();
+    }
+
+    public long totalWords()
+    {
+        return frequencies.totalCount();
+    }
+
+    //largest overestimate count() gives, except with probability delta
+    public double errorBound()
+    {
+        return frequencies.errorBound();
+    }
+
+    //add the words counted by other (same epsilon, delta, precision and seed)
+    public void merge(ApproximateWordCounter other)
+    {
+        frequencies.merge(other.frequencies);
+        distinct.merge(other.distinct);
+    }
+
+    public long memoryBytes()
+    {
+        return frequencies.memoryBytes() + distinct.memoryBytes();
+    }
+
+    /* ---- Checks on synthetic Zipf text ---- */
+
+    private static final double EPSILON = 1e-4;
+    private static final double DELTA = 0.01;
+    private static final int PRECISION = 14;
+    private static final long SEED = 7;
+
+    //checks the configured bounds against exact counts; returns the worst overestimate
+    private static long check(String name, ApproximateWordCounter counter, Map<String, Integer> exact, int puts)
+    {
+        if (counter.totalWords() != puts) throw new IllegalStateException(name + ": total words off");
+
+        long worst = 0;
+        int overBound = 0;
+        for (Map.Entry<String, Integer> e : exact.entrySet())
+        {
+            long error = counter.count(e.getKey()) - e.getValue();
+            if (error < 0) throw new IllegalStateException(name + ": underestimated " + e.getKey());
+            if (error > counter.errorBound()) overBound++;
+            worst = Math.max(worst, error);
+        }
+        //each word exceeds the bound with probability at most delta; allow some sampling slack
+        double overShare = (double) overBound / exact.size();
+        if (overShare > 2 * DELTA) throw new IllegalStateException(name + ": " + overBound + " words past the error bound");
+
+        double relative = Math.abs(counter.distinctWords() - exact.size()) / (double) exact.size();
+        if (relative > 4 * counter.distinct.standardError()) throw new IllegalStateException(name + ": distinct words off by " + relative);
+
+        System.out.printf("%-10s worst overestimate %4d (bound %.1f, %.3f%% of words past it), distinct %d vs %d (%.2f%%)%n",
+                name, worst, counter.errorBound(), 100 * overShare, counter.distinctWords(), exact.size(), 100 * relative);
+        return worst;
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        //sample text
+        ApproximateWordCounter sample = new ApproximateWordCounter(0.01, 0.01, 10, SEED);
+        sample.putText("This is a test. This test is simple and this test works.");
+        System.out.println("Count for 'test' (3): " + sample.count("test") + ", distinct words (7): " + sample.distinctWords());
+
+        //Zipf text: 2M words over a 500k vocabulary, counted exactly by a HashMap for comparison
+        int puts = 2_000_000, vocabulary = 500_000, threads = 4;
+        ZipfGenerator zipf = new ZipfGenerator(vocabulary, 1.0, 1);
+        String[] text = new String[puts];
+        Map<String, Integer> exact = new HashMap<>();
+        for (int i = 0; i < puts; i++)
+        {
+            text[i] = "word" + zipf.next();
+            exact.merge(text[i], 1, Integer::sum);
+        }
+
+        ApproximateWordCounter single = new ApproximateWordCounter(EPSILON, DELTA, PRECISION, SEED);
+        for (String w : text) single.put(w);
+        System.out.printf("%nZipf text: %d words, %d distinct; sketches use %d KB (epsilon %.0e, delta %.2f)%n",
+                puts, exact.size(), single.memoryBytes() / 1024, EPSILON, DELTA);
+        check("single", single, exact, puts);
+
+        //the same text split over threads, one counter each, merged afterwards
+        ApproximateWordCounter[] shards = new ApproximateWordCounter[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            ApproximateWordCounter shard = shards[t] = new ApproximateWordCounter(EPSILON, DELTA, PRECISION, SEED);
+            int from = t * puts / threads, to = (t + 1) * puts / threads;
+            workers[t] = new Thread(() ->
+            {
+                for (int i = from; i < to; i++) shard.put(text[i]);
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+        ApproximateWordCounter merged = shards[0];
+        for (int t = 1; t < threads; t++) merged.merge(shards[t]);
+        check("merged", merged, exact, puts);
+
+        //merging shards of distinct counts must agree with counting all words at once
+        if (merged.distinctWords() != single.distinctWords()) throw new IllegalStateException("merged distinct count differs");
+        System.out.println("All bounds hold.");
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+//Multi-threaded word counting with 1 to 32 threads on a Zipf-distributed vocabulary
+//Compares:
+//  global lock   one ManualHashTable behind a single lock (what the ingest path does today)
+//  striped       ConcurrentManualHashTable (lock stripes, lock-free LongAdder increments)
+//  JDK CHM       ConcurrentHashMap<String, LongAdder> as a reference point
+//Every thread puts its own pre-generated word sequence, so word generation is not
+//timed; the total number of puts is the same at every thread count.
+//Scaling needs as many cores as threads: on fewer cores the extra threads only
+//show how much each table suffers from contention and preemption.
+//
+//Usage: java ConcurrentHashTableBenchmark [total puts] [vocabulary] [zipf s]
+//       (default 4000000 100000 1.0)
+public class ConcurrentHashTableBenchmark
+{
+    private interface Counter
+    {
+        void put(String word);
+        long get(String word);
+    }
+
+    private static Counter globalLock()
+    {
+        ManualHashTable table = new ManualHashTable(1024);
+        return new Counter()
+        {
+            public synchronized void put(String word) { table.put(word); }
+            public synchronized long get(String word) { return table.get(word); }
+        };
+    }
+
+    private static Counter striped()
+    {
+        ConcurrentManualHashTable table = new ConcurrentManualHashTable();
+        return new Counter()
+        {
+            public void put(String word) { table.put(word); }
+            public long get(String word) { return table.get(word); }
+        };
+    }
+
+    private static Counter jdk()
+    {
+        ConcurrentHashMap<String, LongAdder> map = new ConcurrentHashMap<>();
+        return new Counter()
+        {
+            public void put(String word) { map.computeIfAbsent(word, w -> new LongAdder()).increment(); }
+            public long get(String word) { LongAdder a = map.get(word); return (a == null) ? 0 : a.sum(); }
+        };
+    }
+
+    //returns puts per second
+    private static double run(Counter counter, String[][] perThread) throws Exception
+    {
+        int threads = perThread.length;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (String[] words : perThread)
+        {
+            done.add(pool.submit(() ->
+            {
+                ready.countDown();
+                go.await();
+                for (String w : words) counter.put(w);
+                return null;
+            }));
+        }
+        //read the clock before releasing the workers, who may otherwise finish before this thread runs again
+        ready.await();
+        long t0 = System.nanoTime();
+        go.countDown();
+        for (Future<?> f : done) f.get();
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        long total = 0;
+        for (String[] words : perThread) total += words.length;
+        return total / (elapsed / 1e9);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int totalPuts = (args.length > 0) ? Integer.parseInt(args[0]) : 4_000_000;
+        int vocabulary = (args.length > 1) ? Integer.parseInt(args[1]) : 100_000;
+        double s = (args.length > 2) ? Double.parseDouble(args[2]) : 1.0;
+
+        String[] dictionary = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) dictionary[i] = "word" + i;
+
+        System.out.println("puts: " + totalPuts + ", vocabulary: " + vocabulary + ", zipf s: " + s
+                + ", cores: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %14s %14s %14s%n", "threads", "global lock", "striped", "JDK CHM");
+        for (int threads = 1; threads <= 32; threads *= 2)
+        {
+            String[][] perThread = new String[threads][totalPuts / threads];
+            for (int t = 0; t < threads; t++)
+            {
+                ZipfGenerator zipf = new ZipfGenerator(vocabulary, s, t);
+                for (int i = 0; i < perThread[t].length; i++) perThread[t][i] = dictionary[zipf.next()];
+            }
+            long expected = 0;
+            for (String[] words : perThread) for (String w : words) if (w == dictionary[0]) expected++;
+
+            double[] rate = new double[3];
+            for (int rep = 0; rep < 2; rep++) //first round warms up the JIT
+            {
+                Counter[] counters = {globalLock(), striped(), jdk()};
+                for (int c = 0; c < counters.length; c++)
+                {
+                    rate[c] = run(counters[c], perThread);
+                    if (counters[c].get(dictionary[0]) != expected) throw new IllegalStateException("lost increments");
+                }
+            }
+            System.out.printf("%-8d %11.2f M/s %11.2f M/s %11.2f M/s%n", threads, rate[0] / 1e6, rate[1] / 1e6, rate[2] / 1e6);
+        }
+    }
+}
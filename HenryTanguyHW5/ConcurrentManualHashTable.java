@@ -0,0 +1,221 @@
+import java.util.concurrent.atomic.LongAdder;
+
+//Thread-safe word counter in the style of ManualHashTable, for many ingest threads
+//The table is split into segments (lock stripes), each its own chained hash table
+//with its own lock, so threads writing different words rarely meet.
+//Counts are LongAdders: put of a word that is already present finds its entry
+//without locking and increments the adder, so even the very common words of a
+//Zipf-like text (the same few entries hit by every thread) do not serialize.
+//Only adding a new word, removing one and growing a segment take the segment lock.
+//
+//Lock-free reads can run while a segment grows or unlinks an entry. Entries are
+//moved, never copied, and a moved entry only ever points to entries moved before
+//it, so a racing reader cannot loop; at worst it misses, and every miss is
+//confirmed under the lock.
+public class ConcurrentManualHashTable
+{
+    private static final int DEFAULT_SEGMENTS = 64;
+    private static final int INITIAL_BUCKETS = 16;  //per segment
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    //word, its count, and the next entry in the bucket
+    private static final class Node
+    {
+        final String word;
+        final int hash;
+        final LongAdder count = new LongAdder();
+        volatile Node next;
+        volatile boolean removed; //set under the lock before unlinking
+
+        Node(String word, int hash, Node next)
+        {
+            this.word = word;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    //one lock stripe: a chained table guarded by synchronized(this)
+    private static final class Segment
+    {
+        volatile Node[] table = new Node[INITIAL_BUCKETS];
+        volatile int entries;
+
+        //lock-free search; null may be a stale miss
+        Node find(String word, int h)
+        {
+            Node[] t = table;
+            for (Node n = t[h & (t.length - 1)]; n != null; n = n.next)
+            {
+                if (n.hash == h && n.word.equals(word)) return n;
+            }
+            return null;
+        }
+
+        //find or add word (holding the lock)
+        synchronized Node findOrAdd(String word, int h)
+        {
+            Node n = find(word, h);
+            if (n != null) return n;
+            if (entries + 1 > LOAD_FACTOR * table.length) grow();
+            Node[] t = table;
+            int i = h & (t.length - 1);
+            n = new Node(word, h, t[i]);
+            t[i] = n;
+            entries++;
+            return n;
+        }
+
+        synchronized boolean remove(String word, int h)
+        {
+            Node[] t = table;
+            int i = h & (t.length - 1);
+            Node prev = null;
+            for (Node n = t[i]; n != null; prev = n, n = n.next)
+            {
+                if (n.hash == h && n.word.equals(word))
+                {
+                    n.removed = true;
+                    if (prev == null) t[i] = n.next;
+                    else prev.next = n.next;
+                    entries--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        //double the bucket array, relinking the existing nodes
+        private void grow()
+        {
+            Node[] old = table;
+            Node[] t = new Node[old.length * 2];
+            for (Node head : old)
+            {
+                for (Node n = head; n != null; )
+                {
+                    Node next = n.next;
+                    int i = n.hash & (t.length - 1);
+                    n.next = t[i];
+                    t[i] = n;
+                    n = next;
+                }
+            }
+            table = t;
+        }
+    }
+
+    // Constructor
+    public ConcurrentManualHashTable()
+    {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    //segments is rounded up to a power of two
+    public ConcurrentManualHashTable(int segments)
+    {
+        int n = 1, shift = 32;
+        while (n < segments)
+        {
+            n <<= 1;
+            shift--;
+        }
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) this.segments[i] = new Segment();
+        //high hash bits pick the segment, low bits the bucket inside it
+        this.segmentShift = shift;
+    }
+
+    //mix the high bits into the low ones
+    private static int hash(String key)
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int h)
+    {
+        return (segmentShift == 32) ? segments[0] : segments[h >>> segmentShift];
+    }
+
+    //Insert or update a word
+    public void put(String word)
+    {
+        int h = hash(word);
+        Segment s = segmentFor(h);
+        Node n = s.find(word, h);
+        if (n != null)
+        {
+            n.count.increment();
+            //if a remove got there first, that increment went to a dead entry: redo it
+            if (!n.removed) return;
+        }
+        while (true)
+        {
+            n = s.findOrAdd(word, h);
+            n.count.increment();
+            if (!n.removed) return;
+        }
+    }
+
+    //Get count of a word
+    public long get(String word)
+    {
+        int h = hash(word);
+        Segment s = segmentFor(h);
+        Node n = s.find(word, h);
+        if (n == null || n.removed)
+        {
+            synchronized (s)
+            {
+                n = s.find(word, h);
+            }
+            if (n == null) return 0;
+        }
+        return n.count.sum();
+    }
+
+    public boolean remove(String word)
+    {
+        int h = hash(word);
+        return segmentFor(h).remove(word, h);
+    }
+
+    //number of distinct words (exact only when no thread is writing)
+    public int entryCount()
+    {
+        int total = 0;
+        for (Segment s : segments) total += s.entries;
+        return total;
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        //sample text, counted by four threads at once
+        String text = "This is a test. This test is simple and this test works.";
+        String[] words = text.toLowerCase().split("\\W+");
+
+        ConcurrentManualHashTable hashTable = new ConcurrentManualHashTable(4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++)
+        {
+            threads[t] = new Thread(() ->
+            {
+                for (int rep = 0; rep < 1000; rep++)
+                {
+                    for (String word : words) hashTable.put(word);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        System.out.println("Distinct words: " + hashTable.entryCount());
+        System.out.println("Count for 'test' (3 per text x 1000 x 4 threads): " + hashTable.get("test"));
+        hashTable.remove("simple");
+        System.out.println("Count for 'simple' after removing it: " + hashTable.get("simple"));
+    }
+}
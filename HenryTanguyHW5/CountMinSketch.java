@@ -0,0 +1,149 @@
+//Approximate word frequencies in a fixed amount of memory
+//depth rows of width counters; a word adds to one counter per row and its estimate
+//is the smallest of those counters. Collisions only ever add, so an estimate is
+//never below the true count, and with probability at least 1 - delta it is at
+//most epsilon * (total words added) above it, with width = e / epsilon and
+//depth = ln(1 / delta).
+//
+//Conservative update: an add raises each of the word's counters only as far as
+//(current estimate + count), never past it, which keeps the guarantee and cuts
+//the overestimate for rare words considerably on skewed text.
+//
+//Sketches built with the same width, depth and seed can be merged by adding their
+//counters (one sketch per thread or shard, merged at the end). A single sketch is
+//not thread-safe.
+public class CountMinSketch
+{
+    private final int width;      //power of two
+    private final int depth;
+    private final long seed;
+    private final long[] counters; //depth rows of width, row-major
+    private final int[] idx;       //counter indexes of the current word, reused by every call
+    private long total;
+
+    //Sized for the error bounds: estimates within epsilon * total with probability 1 - delta
+    public CountMinSketch(double epsilon, double delta, long seed)
+    {
+        this(widthFor(epsilon), depthFor(delta), seed);
+    }
+
+    //width is rounded up to a power of two
+    public CountMinSketch(int width, int depth, long seed)
+    {
+        if (width < 1 || depth < 1) throw new IllegalArgumentException("width and depth must be at least 1");
+        int w = 1;
+        while (w < width) w <<= 1;
+        if ((long) w * depth > Integer.MAX_VALUE) throw new IllegalArgumentException("sketch too large");
+        this.width = w;
+        this.depth = depth;
+        this.seed = seed;
+        this.counters = new long[w * depth];
+        this.idx = new int[depth];
+    }
+
+    private static int widthFor(double epsilon)
+    {
+        if (!(epsilon > 0 && epsilon < 1)) throw new IllegalArgumentException("epsilon must be in (0, 1)");
+        return (int) Math.ceil(Math.E / epsilon);
+    }
+
+    private static int depthFor(double delta)
+    {
+        if (!(delta > 0 && delta < 1)) throw new IllegalArgumentException("delta must be in (0, 1)");
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    //counter index of word in every row: row i uses h1 + i * h2 (double hashing)
+    private void indexes(CharSequence word, int[] out)
+    {
+        long h = WordHasher.hash64(word, seed);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        for (int i = 0; i < depth; i++) out[i] = i * width + ((h1 + i * h2) & (width - 1));
+    }
+
+    public void add(CharSequence word)
+    {
+        add(word, 1);
+    }
+
+    public void add(CharSequence word, long count)
+    {
+        if (count < 0) throw new IllegalArgumentException("count cannot be negative");
+        indexes(word, idx);
+        long target = estimate(idx) + count;
+        for (int i : idx)
+        {
+            if (counters[i] < target) counters[i] = target;
+        }
+        total += count;
+    }
+
+    //upper bound on the count of word
+    public long estimate(CharSequence word)
+    {
+        indexes(word, idx);
+        return estimate(idx);
+    }
+
+    private long estimate(int[] idx)
+    {
+        long min = Long.MAX_VALUE;
+        for (int i : idx) min = Math.min(min, counters[i]);
+        return min;
+    }
+
+    //add other's counts into this sketch
+    public void merge(CountMinSketch other)
+    {
+        if (other.width != width || other.depth != depth || other.seed != seed)
+            throw new IllegalArgumentException("can only merge sketches with the same width, depth and seed");
+        for (int i = 0; i < counters.length; i++) counters[i] += other.counters[i];
+        total += other.total;
+    }
+
+    //number of words added (exact)
+    public long totalCount()
+    {
+        return total;
+    }
+
+    //the additive error bound epsilon * total these dimensions give
+    public double errorBound()
+    {
+        return Math.E / width * total;
+    }
+
+    //probability that an estimate exceeds errorBound()
+    public double failureProbability()
+    {
+        return Math.exp(-depth);
+    }
+
+    public int width()
+    {
+        return width;
+    }
+
+    public int depth()
+    {
+        return depth;
+    }
+
+    public long memoryBytes()
+    {
+        return 8L * counters.length;
+    }
+
+    public static void main(String[] args)
+    {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.01, 42);
+        String text = "This is a test. This test is simple and this test works.";
+        for (String word : text.toLowerCase().split("\\W+")) sketch.add(word);
+
+        System.out.println(sketch.width() + " x " + sketch.depth() + " counters, " + sketch.memoryBytes() + " bytes");
+        System.out.println("Estimate for 'test' (3): " + sketch.estimate("test"));
+        System.out.println("Estimate for 'missing' (0): " + sketch.estimate("missing"));
+        System.out.printf("Error bound: +%.2f with probability %.2f%n", sketch.errorBound(), 1 - sketch.failureProbability());
+    }
+}
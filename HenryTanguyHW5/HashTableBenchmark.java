@@ -0,0 +1,176 @@
+import java.util.*;
+
+//Compares the chained ManualHashTable with the open-addressing RobinHoodHashTable
+//and the OffHeapHashTable, which keeps its words' bytes in a direct ByteBuffer
+//For n distinct words: insert each, update each, look each up, look up n missing
+//words, then remove each. Reports ns per operation and heap bytes per entry.
+//All three tables start at 16 buckets (slots) and grow on their own: ManualHashTable
+//moves a few buckets per call, RobinHoodHashTable and OffHeapHashTable rehash
+//everything at once. A second run times every put while the tables grow and
+//reports latency percentiles; the max there is usually a GC pause, so compare
+//p99/p99.9.
+//The word Strings are created once and shared, so only table overhead is measured;
+//the off-heap table copies the words, so its figure includes their bytes.
+//
+//Usage: java HashTableBenchmark [words]   (default 1000000)
+public class HashTableBenchmark
+{
+    //minimal common surface of the tables under test
+    private interface Table
+    {
+        void put(String word);
+        int get(String word);
+        boolean remove(String word);
+
+        //memory outside the Java heap
+        default long offHeapBytes() { return 0; }
+    }
+
+    private static Table chained()
+    {
+        ManualHashTable table = new ManualHashTable(16);
+        return new Table()
+        {
+            public void put(String word) { table.put(word); }
+            public int get(String word) { return table.get(word); }
+            public boolean remove(String word) { return table.remove(word); }
+        };
+    }
+
+    private static Table robinHood()
+    {
+        RobinHoodHashTable table = new RobinHoodHashTable(16);
+        return new Table()
+        {
+            public void put(String word) { table.put(word); }
+            public int get(String word) { return table.get(word); }
+            public boolean remove(String word) { return table.remove(word); }
+        };
+    }
+
+    private static Table offHeap()
+    {
+        OffHeapHashTable table = new OffHeapHashTable(16);
+        return new Table()
+        {
+            public void put(String word) { table.put(word); }
+            public int get(String word) { return table.get(word); }
+            public boolean remove(String word) { return table.remove(word); }
+            public long offHeapBytes() { return table.arenaCapacity(); }
+        };
+    }
+
+    //n distinct lowercase words of 4 to 10 letters
+    private static String[] words(int n, long seed)
+    {
+        Random rnd = new Random(seed);
+        Set<String> seen = new HashSet<>();
+        String[] out = new String[n];
+        int count = 0;
+        while (count < n)
+        {
+            char[] w = new char[4 + rnd.nextInt(7)];
+            for (int i = 0; i < w.length; i++) w[i] = (char) ('a' + rnd.nextInt(26));
+            String s = new String(w);
+            if (seen.add(s)) out[count++] = s;
+        }
+        return out;
+    }
+
+    private static long usedHeap()
+    {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void run(String name, Table table, String[] present, String[] missing, boolean report)
+    {
+        int n = present.length;
+        long t0 = System.nanoTime();
+        for (String w : present) table.put(w);
+        long t1 = System.nanoTime();
+        for (String w : present) table.put(w);
+        long t2 = System.nanoTime();
+        long sum = 0;
+        for (String w : present) sum += table.get(w);
+        long t3 = System.nanoTime();
+        for (String w : missing) sum += table.get(w);
+        long t4 = System.nanoTime();
+        int removed = 0;
+        for (String w : present) if (table.remove(w)) removed++;
+        long t5 = System.nanoTime();
+
+        if (sum != 2L * n || removed != n) throw new IllegalStateException(name + ": wrong results");
+        if (report)
+        {
+            System.out.printf("%-12s %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, (t1 - t0) / (double) n,
+                    (t2 - t1) / (double) n, (t3 - t2) / (double) n, (t4 - t3) / (double) n, (t5 - t4) / (double) n);
+        }
+    }
+
+    //heap (plus off-heap) bytes per entry of a table holding all of words
+    private static double bytesPerEntry(String kind, String[] words)
+    {
+        long before = usedHeap();
+        Table table = kind.equals("chained") ? chained() : kind.equals("robin hood") ? robinHood() : offHeap();
+        for (String w : words) table.put(w);
+        long bytes = usedHeap() - before + table.offHeapBytes();
+        if (table.get(words[0]) != 1) throw new IllegalStateException("lost a word");
+        return (double) bytes / words.length;
+    }
+
+    //time every put while the table grows from 16 buckets to hold all of words
+    private static void putLatency(String name, Table table, String[] words)
+    {
+        long[] latency = new long[words.length];
+        long start = System.nanoTime();
+        for (int i = 0; i < words.length; i++)
+        {
+            long t0 = System.nanoTime();
+            table.put(words[i]);
+            latency[i] = System.nanoTime() - t0;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latency);
+        System.out.printf("%-12s %12.0f %8d %8d %8d %12d%n", name, words.length / seconds,
+                percentile(latency, 50), percentile(latency, 99), percentile(latency, 99.9), latency[latency.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p)
+    {
+        int i = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    public static void main(String[] args)
+    {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] all = words(2 * n, 1);
+        String[] present = Arrays.copyOfRange(all, 0, n);
+        String[] missing = Arrays.copyOfRange(all, n, 2 * n);
+
+        System.out.println("distinct words: " + n + "  (ns/op)");
+        System.out.printf("%-12s %9s %9s %9s %9s %9s%n", "table", "insert", "update", "get hit", "get miss", "remove");
+        //warm-up pass for each table so neither pays for JIT compilation in the reported run
+        run("chained", chained(), present, missing, false);
+        run("robin hood", robinHood(), present, missing, false);
+        run("off-heap", offHeap(), present, missing, false);
+        run("chained", chained(), present, missing, true);
+        run("robin hood", robinHood(), present, missing, true);
+        run("off-heap", offHeap(), present, missing, true);
+
+        System.out.println("\nput latency during growth (ns)");
+        System.out.printf("%-12s %12s %8s %8s %8s %12s%n", "table", "puts/s", "p50", "p99", "p99.9", "max");
+        putLatency("chained", chained(), present);
+        putLatency("robin hood", robinHood(), present);
+        putLatency("off-heap", offHeap(), present);
+
+        System.out.printf("%nbytes/entry: chained %.1f, robin hood %.1f, off-heap %.1f (words included)%n",
+                bytesPerEntry("chained", present), bytesPerEntry("robin hood", present), bytesPerEntry("off-heap", present));
+    }
+}
@@ -0,0 +1,81 @@
+//Approximate number of distinct words in a fixed amount of memory
+//2^precision one-byte registers. A word's 64-bit hash picks a register with its
+//top precision bits, and the register keeps the longest run of leading zeros seen
+//in the remaining bits; long runs mean many distinct hashes. The estimate is a
+//harmonic mean over the registers, with a relative standard error of about
+//1.04 / sqrt(2^precision): 0.8% at precision 14 (16 KB).
+//
+//Adding the same word again changes nothing, so sketches with the same precision
+//and seed can be merged by taking register maxima (one per thread or shard).
+//A single sketch is not thread-safe.
+public class HyperLogLog
+{
+    private final int precision;
+    private final long seed;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision, long seed)
+    {
+        if (precision < 4 || precision > 18) throw new IllegalArgumentException("precision must be between 4 and 18");
+        this.precision = precision;
+        this.seed = seed;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(CharSequence word)
+    {
+        long h = WordHasher.hash64(word, seed);
+        int index = (int) (h >>> (64 - precision));
+        //a 1 bit below the remaining bits caps the run at 64 - precision
+        long rest = (h << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) registers[index] = rank;
+    }
+
+    public long estimate()
+    {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers)
+        {
+            sum += Math.scalb(1.0, -r);
+            if (r == 0) zeros++;
+        }
+        double alpha = (m == 16) ? 0.673 : (m == 32) ? 0.697 : (m == 64) ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double e = alpha * m * m / sum;
+        //small cardinalities: count empty registers instead (linear counting)
+        if (e <= 2.5 * m && zeros > 0) e = m * Math.log((double) m / zeros);
+        return Math.round(e);
+    }
+
+    //combine with a sketch of other words: the result counts the union
+    public void merge(HyperLogLog other)
+    {
+        if (other.precision != precision || other.seed != seed)
+            throw new IllegalArgumentException("can only merge sketches with the same precision and seed");
+        for (int i = 0; i < registers.length; i++)
+        {
+            if (registers[i] < other.registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    //relative standard error of estimate()
+    public double standardError()
+    {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public long memoryBytes()
+    {
+        return registers.length;
+    }
+
+    public static void main(String[] args)
+    {
+        HyperLogLog hll = new HyperLogLog(14, 42);
+        for (int i = 0; i < 1_000_000; i++) hll.add("word" + (i % 250_000));
+        System.out.printf("Distinct words: ~%d (exact 250000, standard error %.1f%%, %d bytes)%n",
+                hll.estimate(), 100 * hll.standardError(), hll.memoryBytes());
+    }
+}
@@ -2,61 +2,121 @@ import java.util.*;
 
 public class ManualHashTable 
 {
+    //grow once there are more than this many entries per bucket
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+    //old buckets moved to the new table by each put/get/remove while resizing
+    private static final int MIGRATE_PER_OP = 4;
+
     //create an array of linked lists for separate chaining
-    //each linked list will hold WordEntry objects
+    //each linked list will hold WordEntry objects (created on first use, null until then)
     private List<WordEntry>[] table;
     private int size;
+    private int entries;
+    private final double loadFactor;
+    private final WordHasher hasher;
 
-    // Constructor
-    @SuppressWarnings("unchecked")
+    //while resizing, buckets of the old table not yet moved
+    //old buckets below migrateIndex are already empty
+    private List<WordEntry>[] oldTable;
+    private int oldSize;
+    private int migrateIndex;
+
+    //continuously maintained top-K (see trackTopK): a min-heap on count, null when off
+    private WordEntry[] top;
+    private int topSize;
+
+    // Constructor: size is rounded up to a power of two
     public ManualHashTable(int size) 
     {
-        this.size = size;
-        table = new LinkedList[size];
-        for (int i = 0; i < size; i++) 
-        {
-            table[i] = new LinkedList<>();
-        }
+        this(size, DEFAULT_LOAD_FACTOR);
+    }
+
+    public ManualHashTable(int size, double loadFactor) 
+    {
+        this(size, loadFactor, WordHasher.JAVA);
     }
 
-    // Hash function to compute index for a word
-    private int hash(String key) 
+    //use WordHasher.randomSipHash() when words come from untrusted input
+    public ManualHashTable(int size, double loadFactor, WordHasher hasher) 
     {
-        return Math.abs(key.hashCode()) % size;
+        if (size < 1) throw new IllegalArgumentException("size must be at least 1");
+        if (!(loadFactor > 0)) throw new IllegalArgumentException("loadFactor must be positive");
+        if (hasher == null) throw new IllegalArgumentException("hasher cannot be null");
+        int buckets = 1;
+        while (buckets < size) buckets <<= 1;
+        this.size = buckets;
+        this.loadFactor = loadFactor;
+        this.hasher = hasher;
+        table = newTable(buckets);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<WordEntry>[] newTable(int size) 
+    {
+        return new LinkedList[size];
+    }
+
+    //bucket index for a hash: bucket counts are powers of two, so a mask replaces the modulo
+    private static int index(int hash, int buckets) 
+    {
+        return hash & (buckets - 1);
+    }
+
+    //bucket that holds (or would hold) a word with this hash, from whichever table it is in now
+    //null if that bucket has never been used, unless create is set
+    private List<WordEntry> bucketFor(int hash, boolean create) 
+    {
+        List<WordEntry>[] t = table;
+        int index;
+        if (oldTable != null && index(hash, oldSize) >= migrateIndex) 
+        {
+            t = oldTable;
+            index = index(hash, oldSize);
+        }
+        else index = index(hash, size);
+        if (t[index] == null && create) t[index] = new LinkedList<>();
+        return t[index];
     }
 
     //Insert or update a word
     public void put(String word) 
     {
-        //convert word to hash code
-        int index = hash(word);
+        migrateSome();
 
-        //insert into the array at that index
-        List<WordEntry> bucket = table[index];
+        //find the bucket for the word's hash code
+        int hash = hasher.hash(word);
+        List<WordEntry> bucket = bucketFor(hash, true);
 
         for (WordEntry entry : bucket) 
         {
-            if (entry.word.equals(word)) 
+            if (entry.hash == hash && entry.word.equals(word)) 
             {
                 //Word found, increment count
                 entry.increment();
+                if (top != null) offerTop(entry);
                 return;
             }
         }
 
         //Word not found, add new entry
-        bucket.add(new WordEntry(word));
+        WordEntry added = new WordEntry(word, hash);
+        bucket.add(added);
+        entries++;
+        if (top != null) offerTop(added);
+        if (entries > loadFactor * size) startResize();
     }
 
     //Get count of a word
     public int get(String word) 
     {
-        int index = hash(word);
-        List<WordEntry> bucket = table[index];
+        migrateSome();
+        int hash = hasher.hash(word);
+        List<WordEntry> bucket = bucketFor(hash, false);
+        if (bucket == null) return 0;
 
         for (WordEntry entry : bucket) 
         {
-            if (entry.word.equals(word)) 
+            if (entry.hash == hash && entry.word.equals(word)) 
             {
                 return entry.count;
             }
@@ -66,30 +126,279 @@ public class ManualHashTable
 
     public boolean remove(String word) 
     {
-        int index = hash(word);
-        List<WordEntry> bucket = table[index];
+        migrateSome();
+        int hash = hasher.hash(word);
+        List<WordEntry> bucket = bucketFor(hash, false);
+        if (bucket == null) return false;
 
         Iterator<WordEntry> it = bucket.iterator();
         while (it.hasNext()) 
         {
             WordEntry entry = it.next();
-            if (entry.word.equals(word)) 
+            if (entry.hash == hash && entry.word.equals(word)) 
             {
                 it.remove();
+                entries--;
+                //a tracked word leaving can make room for any other word: recompute
+                if (entry.heapIndex >= 0) rebuildTop();
                 return true;
             }
         }
         return false;
     }
 
+    //number of distinct words
+    public int entryCount() 
+    {
+        return entries;
+    }
+
+    //current number of buckets
+    public int bucketCount() 
+    {
+        return size;
+    }
+
+    /* ---- Incremental resizing ---- */
+    //Growing allocates a table twice as large, but entries move over a few
+    //buckets at a time on later calls, so no single put pays for rehashing
+    //everything. Until the move is done, a word lives in the old table if its
+    //old bucket has not been moved yet, and in the new table otherwise.
+
+    private void startResize() 
+    {
+        //a resize still in progress must finish first (only happens with load factors below 1 / MIGRATE_PER_OP)
+        while (oldTable != null) migrateSome();
+        oldTable = table;
+        oldSize = size;
+        migrateIndex = 0;
+        size = size * 2;
+        table = newTable(size);
+    }
+
+    //move the next MIGRATE_PER_OP old buckets into the new table
+    private void migrateSome() 
+    {
+        if (oldTable == null) return;
+        for (int moved = 0; moved < MIGRATE_PER_OP && migrateIndex < oldSize; moved++, migrateIndex++) 
+        {
+            List<WordEntry> bucket = oldTable[migrateIndex];
+            if (bucket == null) continue;
+            for (WordEntry entry : bucket) 
+            {
+                int index = index(entry.hash, size);
+                if (table[index] == null) table[index] = new LinkedList<>();
+                table[index].add(entry);
+            }
+            oldTable[migrateIndex] = null;
+        }
+        if (migrateIndex == oldSize) oldTable = null;
+    }
+
+    /* ---- Top-K ---- */
+
+    private static final Comparator<WordEntry> BY_COUNT = Comparator.comparingInt(e -> e.count);
+
+    //The k most frequent words, most frequent first (ties in no particular order)
+    //One pass over the buckets keeping the k largest counts seen so far in a min-heap:
+    //O(n log k) time and O(k) space instead of copying and sorting all n entries.
+    public List<WordEntry> topK(int k) 
+    {
+        if (k < 0) throw new IllegalArgumentException("k cannot be negative");
+        PriorityQueue<WordEntry> heap = new PriorityQueue<>(Math.max(1, k), BY_COUNT);
+        if (k > 0) 
+        {
+            offerAll(table, heap, k);
+            if (oldTable != null) offerAll(oldTable, heap, k);
+        }
+        return drainDescending(heap);
+    }
+
+    private static void offerAll(List<WordEntry>[] t, PriorityQueue<WordEntry> heap, int k) 
+    {
+        for (List<WordEntry> bucket : t) 
+        {
+            if (bucket == null) continue;
+            for (WordEntry entry : bucket) 
+            {
+                if (heap.size() < k) heap.add(entry);
+                else if (entry.count > heap.peek().count) 
+                {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+        }
+    }
+
+    private static List<WordEntry> drainDescending(PriorityQueue<WordEntry> heap) 
+    {
+        WordEntry[] out = new WordEntry[heap.size()];
+        for (int i = out.length - 1; i >= 0; i--) out[i] = heap.poll();
+        return Arrays.asList(out);
+    }
+
+    //Keep the k most frequent words up to date on every put, so trackedTopK() can be
+    //polled without scanning the table. Each put then costs O(log k) more at most.
+    //Counts only grow by one per put, so a word outside the heap can only enter by
+    //passing the heap's minimum. Removing a tracked word rescans the table (O(n log k)).
+    public void trackTopK(int k) 
+    {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1");
+        stopTrackingTopK();
+        top = new WordEntry[k];
+        rebuildTop();
+    }
+
+    public void stopTrackingTopK() 
+    {
+        if (top == null) return;
+        for (int i = 0; i < topSize; i++) top[i].heapIndex = -1;
+        top = null;
+        topSize = 0;
+    }
+
+    //The tracked top-K, most frequent first; O(k log k), independent of the table size
+    public List<WordEntry> trackedTopK() 
+    {
+        if (top == null) throw new IllegalStateException("top-K tracking is off; call trackTopK first");
+        WordEntry[] out = Arrays.copyOf(top, topSize);
+        Arrays.sort(out, BY_COUNT.reversed());
+        return Arrays.asList(out);
+    }
+
+    //refill the tracked heap from a full scan
+    private void rebuildTop() 
+    {
+        for (int i = 0; i < topSize; i++) top[i].heapIndex = -1;
+        topSize = 0;
+        for (WordEntry entry : topK(top.length)) offerTop(entry);
+    }
+
+    //entry was just added or incremented
+    private void offerTop(WordEntry entry) 
+    {
+        if (entry.heapIndex >= 0) 
+        {
+            //its count went up: it can only move away from the root
+            siftDown(entry.heapIndex);
+        }
+        else if (topSize < top.length) 
+        {
+            place(entry, topSize++);
+            siftUp(entry.heapIndex);
+        }
+        else if (entry.count > top[0].count) 
+        {
+            top[0].heapIndex = -1;
+            place(entry, 0);
+            siftDown(0);
+        }
+    }
+
+    private void place(WordEntry entry, int i) 
+    {
+        top[i] = entry;
+        entry.heapIndex = i;
+    }
+
+    private void siftUp(int i) 
+    {
+        WordEntry entry = top[i];
+        while (i > 0) 
+        {
+            int parent = (i - 1) / 2;
+            if (top[parent].count <= entry.count) break;
+            place(top[parent], i);
+            i = parent;
+        }
+        place(entry, i);
+    }
+
+    private void siftDown(int i) 
+    {
+        WordEntry entry = top[i];
+        while (true) 
+        {
+            int child = 2 * i + 1;
+            if (child >= topSize) break;
+            if (child + 1 < topSize && top[child + 1].count < top[child].count) child++;
+            if (entry.count <= top[child].count) break;
+            place(top[child], i);
+            i = child;
+        }
+        place(entry, i);
+    }
+
+    /* ---- Diagnostics ---- */
+
+    //Snapshot of how evenly words are spread over the buckets
+    public static class Diagnostics 
+    {
+        public final int buckets;
+        public final int entries;
+        public final double loadFactor;    //entries per bucket
+        public final int longestChain;
+        public final int[] chainLengths;   //chainLengths[k] = number of buckets holding k words
+
+        Diagnostics(int buckets, int entries, int[] chainLengths) 
+        {
+            this.buckets = buckets;
+            this.entries = entries;
+            this.loadFactor = (double) entries / buckets;
+            this.longestChain = chainLengths.length - 1;
+            this.chainLengths = chainLengths;
+        }
+
+        //average number of words compared by a successful lookup
+        public double averageProbes() 
+        {
+            long sum = 0;
+            //a chain of length k costs 1 + 2 + ... + k over its k words
+            for (int k = 1; k < chainLengths.length; k++) sum += (long) chainLengths[k] * k * (k + 1) / 2;
+            return (entries == 0) ? 0 : (double) sum / entries;
+        }
+
+        @Override
+        public String toString() 
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d words in %d buckets, load factor %.2f, longest chain %d, %.2f compares per hit%n",
+                    entries, buckets, loadFactor, longestChain, averageProbes()));
+            for (int k = 0; k < chainLengths.length; k++) 
+            {
+                if (chainLengths[k] > 0) sb.append(String.format("  chain length %d: %d buckets%n", k, chainLengths[k]));
+            }
+            return sb.toString();
+        }
+    }
+
+    //chain-length histogram, longest chain and load factor (finishes any resize in progress first)
+    public Diagnostics diagnostics() 
+    {
+        while (oldTable != null) migrateSome();
+        int longest = 0;
+        for (List<WordEntry> bucket : table) 
+        {
+            if (bucket != null) longest = Math.max(longest, bucket.size());
+        }
+        int[] histogram = new int[longest + 1];
+        for (List<WordEntry> bucket : table) histogram[(bucket == null) ? 0 : bucket.size()]++;
+        return new Diagnostics(size, entries, histogram);
+    }
+
     // Display contents of the hash table
     public void printTable() 
     {
+        while (oldTable != null) migrateSome();
         for (int i = 0; i < size; i++) {
             System.out.print("Bucket " + i + ": ");
-            for (WordEntry entry : table[i]) 
+            if (table[i] != null) 
             {
-                System.out.print(entry + " -> ");
+                for (WordEntry entry : table[i]) 
+                {
+                    System.out.print(entry + " -> ");
+                }
             }
             System.out.println("null");
         }
@@ -101,11 +410,19 @@ public class ManualHashTable
     {
         String word;
         int count;
+        final int hash; //cached, so resizing and lookups do not rehash the word
+        int heapIndex = -1; //position in the tracked top-K heap, -1 if not in it
 
         public WordEntry(String word) 
+        {
+            this(word, hasher.hash(word));
+        }
+
+        WordEntry(String word, int hash) 
         {
             this.word = word;
             this.count = 1;
+            this.hash = hash;
         }
 
         public void increment()
@@ -113,6 +430,16 @@ public class ManualHashTable
             count++;
         }
 
+        public String getWord()
+        {
+            return word;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
         @Override
         public String toString() 
         {
@@ -141,5 +468,43 @@ public class ManualHashTable
         hashTable.remove("simple");
         System.out.println("After removing 'simple':");
         hashTable.printTable();
+
+        //Most frequent words: one-off query, and a top-3 kept current while more text arrives
+        System.out.println("\nTop 3: " + hashTable.topK(3));
+        hashTable.trackTopK(3);
+        for (String word : "works works works and and and and".split(" ")) hashTable.put(word);
+        System.out.println("Tracked top 3 after more text: " + hashTable.trackedTopK());
+
+        //Adversarial input: "Aa" and "BB" have the same hashCode, so every string made of
+        //12 such pairs collides under String.hashCode (4096 words, one hash)
+        List<String> colliding = new ArrayList<>(List.of(""));
+        for (int i = 0; i < 12; i++) 
+        {
+            List<String> longer = new ArrayList<>();
+            for (String s : colliding) 
+            {
+                longer.add(s + "Aa");
+                longer.add(s + "BB");
+            }
+            colliding = longer;
+        }
+        ManualHashTable javaHash = new ManualHashTable(16);
+        ManualHashTable sipHash = new ManualHashTable(16, DEFAULT_LOAD_FACTOR, WordHasher.randomSipHash());
+        for (String s : colliding) 
+        {
+            javaHash.put(s);
+            sipHash.put(s);
+        }
+        System.out.println("\nColliding words with String.hashCode:");
+        System.out.print(summary(javaHash.diagnostics()));
+        System.out.println("Same words with keyed SipHash:");
+        System.out.print(sipHash.diagnostics());
+    }
+
+    //first line of a Diagnostics report
+    private static String summary(Diagnostics d) 
+    {
+        String s = d.toString();
+        return s.substring(0, s.indexOf('\n') + 1);
     }
 }
\ No newline at end of file
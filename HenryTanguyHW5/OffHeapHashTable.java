@@ -0,0 +1,317 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+//Word counter for very large vocabularies that keeps its words off the Java heap
+//Each word's UTF-8 bytes are appended to one direct ByteBuffer (the arena); the
+//table itself is four int arrays (arena offset, byte length, hash, count) probed
+//with Robin Hood linear probing like RobinHoodHashTable. There is no String,
+//WordEntry or list node per word, so the GC sees a handful of arrays whatever the
+//vocabulary size.
+//
+//Lookups take a CharSequence (encoded into a reusable scratch array) or a UTF-8
+//byte[] slice, so counting words straight out of a read buffer allocates nothing.
+//
+//Bytes of removed words stay in the arena; the arena is limited to 2 GB.
+//Not thread-safe (the scratch array is shared).
+public class OffHeapHashTable
+{
+    private static final int MAX_LOAD_PERCENT = 80;
+
+    private ByteBuffer arena;
+    private int arenaUsed;
+
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] counts;   //0 = empty slot
+    private int mask;
+    private int entries;
+    private int threshold;
+
+    private byte[] scratch = new byte[64]; //UTF-8 of the last CharSequence looked up
+
+    // Constructor: capacity is rounded up to a power of two
+    public OffHeapHashTable(int capacity)
+    {
+        int cap = 8;
+        while (cap < capacity) cap <<= 1;
+        allocate(cap);
+        arena = ByteBuffer.allocateDirect(Math.max(1024, cap * 8));
+    }
+
+    private void allocate(int cap)
+    {
+        offsets = new int[cap];
+        lengths = new int[cap];
+        hashes = new int[cap];
+        counts = new int[cap];
+        mask = cap - 1;
+        threshold = (int) ((long) cap * MAX_LOAD_PERCENT / 100);
+    }
+
+    /* ---- Keys as bytes ---- */
+
+    //FNV-1a over the UTF-8 bytes, high bits mixed into the low ones
+    private static int hash(byte[] key, int off, int len)
+    {
+        int h = 0x811c9dc5;
+        for (int i = off; i < off + len; i++)
+        {
+            h ^= key[i] & 0xff;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    //UTF-8 encode s into scratch without creating a String; returns the byte length
+    private int encode(CharSequence s)
+    {
+        int n = s.length();
+        if (scratch.length < 3 * n) scratch = new byte[Math.max(3 * n, 2 * scratch.length)];
+        byte[] b = scratch;
+        int len = 0;
+        for (int i = 0; i < n; i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80) b[len++] = (byte) c;
+            else if (c < 0x800)
+            {
+                b[len++] = (byte) (0xc0 | (c >> 6));
+                b[len++] = (byte) (0x80 | (c & 0x3f));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1)))
+            {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[len++] = (byte) (0xf0 | (cp >> 18));
+                b[len++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                b[len++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                b[len++] = (byte) (0x80 | (cp & 0x3f));
+            }
+            else if (Character.isSurrogate(c)) b[len++] = '?'; //unpaired, as String.getBytes does
+            else
+            {
+                b[len++] = (byte) (0xe0 | (c >> 12));
+                b[len++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                b[len++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return len;
+    }
+
+    private boolean sameBytes(int slot, byte[] key, int off, int len)
+    {
+        int base = offsets[slot];
+        for (int i = 0; i < len; i++)
+        {
+            if (arena.get(base + i) != key[off + i]) return false;
+        }
+        return true;
+    }
+
+    //copy a new word's bytes to the end of the arena; returns its offset
+    private int store(byte[] key, int off, int len)
+    {
+        if (arena.capacity() - arenaUsed < len)
+        {
+            long needed = (long) arenaUsed + len;
+            if (needed > Integer.MAX_VALUE) throw new IllegalStateException("Arena is limited to 2 GB");
+            int cap = (int) Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * arena.capacity()));
+            ByteBuffer bigger = ByteBuffer.allocateDirect(cap);
+            bigger.put(0, arena, 0, arenaUsed);
+            arena = bigger;
+        }
+        arena.put(arenaUsed, key, off, len);
+        int at = arenaUsed;
+        arenaUsed += len;
+        return at;
+    }
+
+    /* ---- Probing ---- */
+
+    private int distance(int h, int i)
+    {
+        return (i - h) & mask;
+    }
+
+    //slot holding the key, or -1
+    private int find(byte[] key, int off, int len, int h)
+    {
+        int i = h & mask;
+        for (int dist = 0; counts[i] != 0; dist++)
+        {
+            if (distance(hashes[i], i) < dist) return -1;
+            if (hashes[i] == h && lengths[i] == len && sameBytes(i, key, off, len)) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    //place an entry known to be absent, displacing richer entries along the way
+    private void insert(int offset, int length, int h, int count)
+    {
+        int i = h & mask;
+        int dist = 0;
+        while (counts[i] != 0)
+        {
+            int d = distance(hashes[i], i);
+            if (d < dist)
+            {
+                int o = offsets[i], l = lengths[i], hh = hashes[i], c = counts[i];
+                offsets[i] = offset;
+                lengths[i] = length;
+                hashes[i] = h;
+                counts[i] = count;
+                offset = o;
+                length = l;
+                h = hh;
+                count = c;
+                dist = d;
+            }
+            i = (i + 1) & mask;
+            dist++;
+        }
+        offsets[i] = offset;
+        lengths[i] = length;
+        hashes[i] = h;
+        counts[i] = count;
+    }
+
+    private void resize()
+    {
+        int[] oldOffsets = offsets, oldLengths = lengths, oldHashes = hashes, oldCounts = counts;
+        allocate(oldCounts.length * 2);
+        for (int i = 0; i < oldCounts.length; i++)
+        {
+            if (oldCounts[i] != 0) insert(oldOffsets[i], oldLengths[i], oldHashes[i], oldCounts[i]);
+        }
+    }
+
+    /* ---- Word counting ---- */
+
+    //Insert or update a word given as UTF-8 bytes key[off, off + len)
+    public void put(byte[] key, int off, int len)
+    {
+        int h = hash(key, off, len);
+        int i = find(key, off, len, h);
+        if (i >= 0)
+        {
+            counts[i]++;
+            return;
+        }
+        if (entries >= threshold) resize();
+        insert(store(key, off, len), len, h, 1);
+        entries++;
+    }
+
+    //Insert or update a word
+    public void put(CharSequence word)
+    {
+        int len = encode(word);
+        put(scratch, 0, len);
+    }
+
+    //Get count of a word given as UTF-8 bytes
+    public int get(byte[] key, int off, int len)
+    {
+        int i = find(key, off, len, hash(key, off, len));
+        return (i < 0) ? 0 : counts[i];
+    }
+
+    //Get count of a word
+    public int get(CharSequence word)
+    {
+        int len = encode(word);
+        return get(scratch, 0, len);
+    }
+
+    public boolean remove(byte[] key, int off, int len)
+    {
+        int i = find(key, off, len, hash(key, off, len));
+        if (i < 0) return false;
+
+        //backward shift, as in RobinHoodHashTable
+        int next = (i + 1) & mask;
+        while (counts[next] != 0 && distance(hashes[next], next) > 0)
+        {
+            offsets[i] = offsets[next];
+            lengths[i] = lengths[next];
+            hashes[i] = hashes[next];
+            counts[i] = counts[next];
+            i = next;
+            next = (next + 1) & mask;
+        }
+        counts[i] = 0;
+        entries--;
+        return true;
+    }
+
+    public boolean remove(CharSequence word)
+    {
+        int len = encode(word);
+        return remove(scratch, 0, len);
+    }
+
+    //number of distinct words
+    public int size()
+    {
+        return entries;
+    }
+
+    //off-heap bytes in use (word bytes, including those of removed words)
+    public long arenaBytes()
+    {
+        return arenaUsed;
+    }
+
+    //off-heap bytes reserved
+    public long arenaCapacity()
+    {
+        return arena.capacity();
+    }
+
+    // Display contents of the hash table (decodes each word, so this one allocates)
+    public void printTable()
+    {
+        byte[] buf = new byte[0];
+        for (int i = 0; i < counts.length; i++)
+        {
+            System.out.print("Slot " + i + ": ");
+            if (counts[i] == 0)
+            {
+                System.out.println("empty");
+                continue;
+            }
+            if (buf.length < lengths[i]) buf = new byte[lengths[i]];
+            arena.get(offsets[i], buf, 0, lengths[i]);
+            System.out.println(new String(buf, 0, lengths[i], StandardCharsets.UTF_8) + ": " + counts[i]);
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        //sample text
+        String text = "This is a test. This test is simple and this test works.";
+
+        //split text into individual words and store in array
+        String[] words = text.toLowerCase().split("\\W+");
+
+        OffHeapHashTable hashTable = new OffHeapHashTable(8);
+
+        //insert words into the hash table
+        for (String word : words)
+        {
+            hashTable.put(word);
+        }
+
+        System.out.println("Word counts:");
+        hashTable.printTable();
+
+        // Example operations: a StringBuilder and a byte slice find the same entry as the String
+        System.out.println("\nCount for 'test': " + hashTable.get(new StringBuilder("te").append("st")));
+        byte[] line = "a simple line".getBytes(StandardCharsets.UTF_8);
+        System.out.println("Count for bytes 2..8 of \"a simple line\": " + hashTable.get(line, 2, 6));
+        hashTable.remove("simple");
+        System.out.println("After removing 'simple': " + hashTable.get("simple")
+                + " (" + hashTable.size() + " words, " + hashTable.arenaBytes() + " arena bytes)");
+    }
+}
@@ -0,0 +1,188 @@
+//Open-addressing version of ManualHashTable
+//Keys, cached hash codes and counts live in three parallel arrays, so a lookup
+//touches array slots instead of walking LinkedList nodes and WordEntry objects.
+//Collisions use Robin Hood linear probing: an entry that is further from its home
+//slot takes the place of one that is closer, which keeps probe lengths short and
+//lets a miss stop early. Deletion shifts the following entries back one slot
+//instead of leaving tombstones.
+public class RobinHoodHashTable
+{
+    private static final int MAX_LOAD_PERCENT = 80;
+
+    private String[] keys;  //null = empty slot
+    private int[] hashes;   //spread hash of keys[i]
+    private int[] counts;
+    private int mask;       //capacity - 1, capacity is a power of two
+    private int entries;
+    private int threshold;
+
+    // Constructor: capacity is rounded up to a power of two
+    public RobinHoodHashTable(int capacity)
+    {
+        int cap = 8;
+        while (cap < capacity) cap <<= 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap)
+    {
+        keys = new String[cap];
+        hashes = new int[cap];
+        counts = new int[cap];
+        mask = cap - 1;
+        threshold = (int) ((long) cap * MAX_LOAD_PERCENT / 100);
+    }
+
+    //mix the high bits into the low ones, since the index only uses the low bits
+    private static int hash(String key)
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    //how far slot i is from the home slot of hash h
+    private int distance(int h, int i)
+    {
+        return (i - h) & mask;
+    }
+
+    //slot holding key, or -1
+    private int find(String key)
+    {
+        int h = hash(key);
+        int i = h & mask;
+        for (int dist = 0; keys[i] != null; dist++)
+        {
+            //a richer entry here means key would have been placed by now
+            if (distance(hashes[i], i) < dist) return -1;
+            if (hashes[i] == h && keys[i].equals(key)) return i;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    //Insert or update a word
+    public void put(String word)
+    {
+        int i = find(word);
+        if (i >= 0)
+        {
+            counts[i]++;
+            return;
+        }
+        if (entries >= threshold) resize();
+        insert(word, hash(word), 1);
+        entries++;
+    }
+
+    //place an entry known to be absent, displacing richer entries along the way
+    private void insert(String key, int h, int count)
+    {
+        int i = h & mask;
+        int dist = 0;
+        while (keys[i] != null)
+        {
+            int d = distance(hashes[i], i);
+            if (d < dist)
+            {
+                //swap: the new entry takes this slot, the old one continues probing
+                String k = keys[i];
+                int hh = hashes[i], c = counts[i];
+                keys[i] = key;
+                hashes[i] = h;
+                counts[i] = count;
+                key = k;
+                h = hh;
+                count = c;
+                dist = d;
+            }
+            i = (i + 1) & mask;
+            dist++;
+        }
+        keys[i] = key;
+        hashes[i] = h;
+        counts[i] = count;
+    }
+
+    private void resize()
+    {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes, oldCounts = counts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != null) insert(oldKeys[i], oldHashes[i], oldCounts[i]);
+        }
+    }
+
+    //Get count of a word
+    public int get(String word)
+    {
+        int i = find(word);
+        return (i < 0) ? 0 : counts[i];
+    }
+
+    public boolean remove(String word)
+    {
+        int i = find(word);
+        if (i < 0) return false;
+
+        //backward shift: pull each following displaced entry one slot closer to home
+        int next = (i + 1) & mask;
+        while (keys[next] != null && distance(hashes[next], next) > 0)
+        {
+            keys[i] = keys[next];
+            hashes[i] = hashes[next];
+            counts[i] = counts[next];
+            i = next;
+            next = (next + 1) & mask;
+        }
+        keys[i] = null;
+        counts[i] = 0;
+        entries--;
+        return true;
+    }
+
+    //number of distinct words
+    public int size()
+    {
+        return entries;
+    }
+
+    // Display contents of the hash table, with each entry's distance from its home slot
+    public void printTable()
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            System.out.print("Slot " + i + ": ");
+            if (keys[i] == null) System.out.println("empty");
+            else System.out.println(keys[i] + ": " + counts[i] + " (+" + distance(hashes[i], i) + ")");
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        //sample text
+        String text = "This is a test. This test is simple and this test works.";
+
+        //split text into individual words and store in array
+        String[] words = text.toLowerCase().split("\\W+");
+
+        RobinHoodHashTable hashTable = new RobinHoodHashTable(8);
+
+        //insert words into the hash table
+        for (String word : words)
+        {
+            hashTable.put(word);
+        }
+
+        System.out.println("Word counts:");
+        hashTable.printTable();
+
+        // Example operations
+        System.out.println("\nCount for 'test': " + hashTable.get("test"));
+        hashTable.remove("simple");
+        System.out.println("After removing 'simple':");
+        hashTable.printTable();
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.*;
+
+//Most frequent words of a Zipf-distributed text held in a ManualHashTable
+//Compares three ways of answering "top k":
+//  full sort    copy every (word, count) and sort them all (what the dashboard does today)
+//  topK         one scan with a bounded min-heap, O(n log k)
+//  tracked      trackedTopK() on a table that maintains its top k on every put
+//and what tracking costs the puts themselves.
+//
+//Usage: java TopKBenchmark [puts] [vocabulary] [k]   (default 5000000 1000000 100)
+public class TopKBenchmark
+{
+    private static ManualHashTable fill(String[] text, int trackK)
+    {
+        ManualHashTable table = new ManualHashTable(16);
+        if (trackK > 0) table.trackTopK(trackK);
+        for (String w : text) table.put(w);
+        return table;
+    }
+
+    //baseline: every distinct word with its count, sorted by count
+    private static List<String> fullSort(ManualHashTable table, String[] dictionary, int k)
+    {
+        List<Map.Entry<String, Integer>> all = new ArrayList<>();
+        for (String w : dictionary)
+        {
+            int c = table.get(w);
+            if (c > 0) all.add(Map.entry(w, c));
+        }
+        all.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> out = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : all.subList(0, Math.min(k, all.size()))) out.add(e.getKey() + ": " + e.getValue());
+        return out;
+    }
+
+    private static double millis(long t0)
+    {
+        return (System.nanoTime() - t0) / 1e6;
+    }
+
+    public static void main(String[] args)
+    {
+        int puts = (args.length > 0) ? Integer.parseInt(args[0]) : 5_000_000;
+        int vocabulary = (args.length > 1) ? Integer.parseInt(args[1]) : 1_000_000;
+        int k = (args.length > 2) ? Integer.parseInt(args[2]) : 100;
+
+        String[] dictionary = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) dictionary[i] = "word" + i;
+        ZipfGenerator zipf = new ZipfGenerator(vocabulary, 1.0, 1);
+        String[] text = new String[puts];
+        for (int i = 0; i < puts; i++) text[i] = dictionary[zipf.next()];
+
+        System.out.println("puts: " + puts + ", vocabulary: " + vocabulary + ", k: " + k);
+        for (int rep = 0; rep < 2; rep++) //first round warms up the JIT
+        {
+            boolean report = rep == 1;
+
+            System.gc();
+            long t0 = System.nanoTime();
+            ManualHashTable plain = fill(text, 0);
+            double plainMs = millis(t0);
+            int distinct = plain.entryCount();
+
+            t0 = System.nanoTime();
+            List<String> sorted = fullSort(plain, dictionary, k);
+            double sortMs = millis(t0);
+            t0 = System.nanoTime();
+            List<ManualHashTable.WordEntry> scanned = plain.topK(k);
+            double scanMs = millis(t0);
+
+            //drop the first table so both fills start from the same heap
+            plain = null;
+            System.gc();
+            t0 = System.nanoTime();
+            ManualHashTable tracked = fill(text, k);
+            double trackedMs = millis(t0);
+            t0 = System.nanoTime();
+            int polls = 1000;
+            List<ManualHashTable.WordEntry> polled = null;
+            for (int i = 0; i < polls; i++) polled = tracked.trackedTopK();
+            double pollMs = millis(t0) / polls;
+
+            //ties may come out in different orders, so compare counts
+            for (int i = 0; i < sorted.size(); i++)
+            {
+                String expected = sorted.get(i);
+                int count = Integer.parseInt(expected.substring(expected.indexOf(": ") + 2));
+                if (scanned.get(i).getCount() != count || polled.get(i).getCount() != count)
+                    throw new IllegalStateException("top-K mismatch at " + i);
+            }
+
+            if (report)
+            {
+                System.out.printf("%d distinct words%n", distinct);
+                System.out.printf("query    full sort %9.3f ms   topK %9.3f ms   tracked %9.4f ms%n", sortMs, scanMs, pollMs);
+                System.out.printf("fill     untracked %9.1f ms   tracked %6.1f ms (%+.1f%%)%n",
+                        plainMs, trackedMs, 100 * (trackedMs - plainMs) / plainMs);
+                System.out.println("top 5: " + polled.subList(0, Math.min(5, polled.size())));
+            }
+        }
+    }
+}
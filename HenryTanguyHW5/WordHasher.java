@@ -0,0 +1,101 @@
+import java.security.SecureRandom;
+
+//Hash function used by ManualHashTable to place words in buckets
+//The table keeps a power-of-two number of buckets and uses the low bits of the
+//hash, so a hasher must spread its entropy into those bits.
+//
+//Choices:
+//  JAVA            String.hashCode() with its high bits folded in; fastest (Strings
+//                  cache their hash) but public, so crafted input ("Aa"/"BB" style
+//                  collisions) can put every word in one chain
+//  sipHash(k0, k1) SipHash-1-3 keyed with a 128-bit secret, over the word's UTF-16
+//                  code units; without the key, collisions cannot be precomputed
+//  randomSipHash() sipHash with a fresh key from SecureRandom, for untrusted input
+//
+//hash64(word, seed) is the seeded 64-bit hash shared by CountMinSketch and
+//HyperLogLog; sketches built with the same seed can only be merged because they
+//all hash through it.
+@FunctionalInterface
+public interface WordHasher
+{
+    int hash(String word);
+
+    WordHasher JAVA = word ->
+    {
+        int h = word.hashCode();
+        return h ^ (h >>> 16);
+    };
+
+    static WordHasher randomSipHash()
+    {
+        SecureRandom rnd = new SecureRandom();
+        return sipHash(rnd.nextLong(), rnd.nextLong());
+    }
+
+    static WordHasher sipHash(long k0, long k1)
+    {
+        return word -> sipHash13(k0, k1, word);
+    }
+
+    //64-bit FNV-1a over the chars, seeded and finished with the MurmurHash3 mixer
+    static long hash64(CharSequence s, long seed)
+    {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (int i = 0; i < s.length(); i++)
+        {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    //SipHash-1-3 (one compression round per 8 bytes, three finalization rounds),
+    //reading each char as two little-endian bytes; the 64-bit result is folded to 32
+    private static int sipHash13(long k0, long k1, String s)
+    {
+        long v0 = k0 ^ 0x736f6d6570736575L;
+        long v1 = k1 ^ 0x646f72616e646f6dL;
+        long v2 = k0 ^ 0x6c7967656e657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+
+        int n = s.length();
+        int i = 0;
+        for (; i + 4 <= n; i += 4)
+        {
+            long m = s.charAt(i) | (long) s.charAt(i + 1) << 16 | (long) s.charAt(i + 2) << 32 | (long) s.charAt(i + 3) << 48;
+            v3 ^= m;
+            //SipRound
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            v0 ^= m;
+        }
+
+        //last block: remaining chars, with the byte length in the top byte
+        long m = (long) (2 * n) << 56;
+        for (int shift = 0; i < n; i++, shift += 16) m |= (long) s.charAt(i) << shift;
+        v3 ^= m;
+        v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+        v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+        v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+        v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        v0 ^= m;
+
+        v2 ^= 0xff;
+        for (int r = 0; r < 3; r++)
+        {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        long h = v0 ^ v1 ^ v2 ^ v3;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.*;
+
+//Draws ranks 0..n-1 with Zipf's law: P(rank k) is proportional to 1 / (k + 1)^s
+//With s = 1 this matches word frequencies in natural text: the most common word
+//is about twice as frequent as the second, three times the third, and so on.
+//Sampling is a binary search over the precomputed cumulative distribution.
+public class ZipfGenerator
+{
+    private final double[] cumulative;
+    private final Random rnd;
+
+    public ZipfGenerator(int n, double s, long seed)
+    {
+        if (n < 1) throw new IllegalArgumentException("n must be at least 1");
+        cumulative = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++)
+        {
+            total += 1.0 / Math.pow(k + 1, s);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < n; k++) cumulative[k] /= total;
+        rnd = new Random(seed);
+    }
+
+    //next rank, 0 being the most frequent
+    public int next()
+    {
+        double u = rnd.nextDouble();
+        int lo = 0, hi = cumulative.length - 1;
+        while (lo < hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < u) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public static void main(String[] args)
+    {
+        ZipfGenerator zipf = new ZipfGenerator(10_000, 1.0, 42);
+        int[] hits = new int[5];
+        int samples = 1_000_000;
+        for (int i = 0; i < samples; i++)
+        {
+            int k = zipf.next();
+            if (k < hits.length) hits[k]++;
+        }
+        System.out.println("Share of the 5 most frequent ranks out of 10,000 (s = 1):");
+        for (int k = 0; k < hits.length; k++)
+        {
+            System.out.printf("rank %d: %.2f%%%n", k, 100.0 * hits[k] / samples);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * AVLMemoryComparison
+ *
+ * Measures heap bytes per entry of AVLTreeMap<Integer,V> against IntAVLTreeMap<V>.
+ * Every entry maps to the same value object so only the map's own overhead is counted.
+ *
+ * Expected layout on a 64-bit JVM with compressed oops:
+ * - AVLTreeMap: Node = 12 header + key/value/left/right/parent/outer refs (6 x 4)
+ *   + nodeHeight/subtreeSize (2 x 4) = 44 -> 48 bytes, plus a 16-byte Integer
+ *   for keys outside the Integer cache = ~64 bytes per entry
+ * - IntAVLTreeMap: key/height/left/right/parent ints (5 x 4) + value ref (4)
+ *   = 24 bytes per slot, times up to 1.5x array slack from growth
+ *
+ * Usage: java AVLMemoryComparison [entries]   (default 1,000,000)
+ */
+
+public class AVLMemoryComparison
+{
+    private static final Object VALUE = new Object();
+
+    private static long usedHeap()
+    {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+        {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public static void main(String[] args)
+    {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        // keys start past the Integer cache so every boxed key is its own object
+        int base = 1 << 20;
+
+        long before = usedHeap();
+        AVLTreeMap<Integer, Object> generic = new AVLTreeMap<>();
+        for (int i = 0; i < n; i++) generic.put(base + i, VALUE);
+        long genericBytes = usedHeap() - before;
+        System.out.println("entries: " + n);
+        System.out.printf("AVLTreeMap<Integer,V>   : %,d bytes total, %.1f bytes/entry%n",
+                genericBytes, (double) genericBytes / n);
+        if (generic.size() != n) throw new IllegalStateException("size mismatch");
+        generic = null;
+
+        before = usedHeap();
+        IntAVLTreeMap<Object> primitive = new IntAVLTreeMap<>(n);
+        for (int i = 0; i < n; i++) primitive.put(base + i, VALUE);
+        long primitiveBytes = usedHeap() - before;
+        System.out.printf("IntAVLTreeMap<V>        : %,d bytes total, %.1f bytes/entry%n",
+                primitiveBytes, (double) primitiveBytes / n);
+        if (primitive.size() != n) throw new IllegalStateException("size mismatch");
+
+        System.out.printf("ratio generic/primitive : %.2fx%n", (double) genericBytes / primitiveBytes);
+    }
+}
@@ -1,4 +1,21 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AVLTreeMap<K,V>
@@ -7,16 +24,29 @@ import java.util.Comparator;
  * - Generic keys K, values V
  * - Supports natural ordering (K extends Comparable<K>) or a Comparator<K>
  * - put, get, remove, containsKey
+ * - order statistics: rank, select, countInRange in O(log n) (subtree sizes kept in each node)
+ * - navigation (floorKey, ceilingKey, ...) and lazy subMap/headMap/tailMap views, iterated
+ *   through parent pointers so a range scan costs O(log n + k)
+ * - entrySpliterator/stream/parallelStream: exactly sized splits by rank, no copying
+ * - O(n) bulk load from sorted input (fromSorted, putAllSorted)
+ * - join/split in O(log n) and union/intersect/difference built on them,
+ *   with the recursive halves run in a ForkJoinPool
+ * - optional TreeStats counters (enableStats); retracing after insert/delete stops
+ *   as soon as a subtree's height is unchanged
+ * - writeSnapshot/openSnapshot: compact on-disk format answered from a memory-mapped
+ *   file without rebuilding nodes (see MappedAVLSnapshot)
  * - prints tree sideways for inspection
  *
  * This file includes a main() demonstrating insertions and deletions with prints after each step.
  */
 
-public class AVLTreeMap<K, V> 
+public class AVLTreeMap<K, V> implements Iterable<Map.Entry<K, V>>
 {
     private Node root;
     private int size;
+    private int modCount; // structural changes, checked by iterators
     private final Comparator<? super K> comp;
+    private TreeStats stats; // null unless enableStats() was called
 
     // Inner node class
     private class Node 
@@ -25,6 +55,7 @@ public class AVLTreeMap<K, V>
         V value;
         Node left, right, parent;
         int nodeHeight;
+        int subtreeSize; // number of nodes in the subtree rooted here
 
         Node(K k, V v, Node p) 
         {
@@ -32,6 +63,7 @@ public class AVLTreeMap<K, V>
             value = v;
             parent = p;
             nodeHeight = 1; // single node height = 1
+            subtreeSize = 1;
         }
     }
 
@@ -51,6 +83,7 @@ public class AVLTreeMap<K, V>
     @SuppressWarnings("unchecked")
     private int compare(K a, K b) 
     {
+        if (stats != null) stats.comparisons++;
         if (comp != null) return comp.compare(a, b);
         return ((Comparable<? super K>) a).compareTo(b);
     }
@@ -66,6 +99,17 @@ public class AVLTreeMap<K, V>
         if (n != null) n.nodeHeight = 1 + Math.max(heightFunc(n.left), heightFunc(n.right));
     }
 
+    // Size helpers (subtree sizes back rank/select)
+    private int sizeFunc(Node n) 
+    {
+        return (n == null) ? 0 : n.subtreeSize;
+    }
+
+    private void updateSize(Node n) 
+    {
+        if (n != null) n.subtreeSize = 1 + sizeFunc(n.left) + sizeFunc(n.right);
+    }
+
     private int balanceFactor(Node n) 
     {
         if (n == null) return 0;
@@ -96,6 +140,7 @@ public class AVLTreeMap<K, V>
     {
         Node x = y.left;
         Node B = x.right;
+        if (stats != null) stats.rotations++;
 
         x.parent = y.parent;
         if (y.parent == null) root = x;
@@ -108,9 +153,11 @@ public class AVLTreeMap<K, V>
         y.left = B;
         if (B != null) B.parent = y;
 
-        // update heights
+        // update heights and sizes (child first, then new subtree root)
         updateHeight(y);
         updateHeight(x);
+        updateSize(y);
+        updateSize(x);
 
         return x;
     }
@@ -120,6 +167,7 @@ public class AVLTreeMap<K, V>
     {
         Node y = x.right;
         Node B = y.left;
+        if (stats != null) stats.rotations++;
 
         y.parent = x.parent;
         if (x.parent == null) root = y;
@@ -132,20 +180,28 @@ public class AVLTreeMap<K, V>
         x.right = B;
         if (B != null) B.parent = x;
 
-        // update heights
+        // update heights and sizes (child first, then new subtree root)
         updateHeight(x);
         updateHeight(y);
+        updateSize(x);
+        updateSize(y);
 
         return y;
     }
 
-    // Rebalance walking up from node (after insertion/removal)
+    // Rebalance walking up from node (after insertion/removal).
+    // Stops retracing once a subtree comes out with the height it had before the
+    // update: nothing above it can have changed height or balance. The remaining
+    // ancestors only need their subtree sizes fixed.
     private void rebalance(Node start) 
     {
         Node n = start;
         while (n != null) 
         {
+            int oldHeight = n.nodeHeight;
             updateHeight(n);
+            updateSize(n);
+            if (stats != null) stats.retraceSteps++;
             if (!isBalanced(n)) 
             {
                 // identify taller child and grandchild to decide rotation
@@ -177,11 +233,27 @@ public class AVLTreeMap<K, V>
                     rotateLeft(a);
                 }
                 // After rotation, the subtree root has been adjusted; heights updated in rotations
+                n = n.parent;
+            }
+            if (n.nodeHeight == oldHeight) 
+            {
+                updateSizesToRoot(n.parent);
+                return;
             }
             n = n.parent;
         }
     }
 
+    // size-only walk for ancestors above an early retracing exit
+    private void updateSizesToRoot(Node n) 
+    {
+        for (; n != null; n = n.parent) 
+        {
+            updateSize(n);
+            if (stats != null) stats.retraceSkipped++;
+        }
+    }
+
     // put operation (insert or replace)
     public V put(K key, V value) 
     {
@@ -190,6 +262,7 @@ public class AVLTreeMap<K, V>
         {
             root = new Node(key, value, null);
             size = 1;
+            modCount++;
             return null;
         }
         Node cur = root, parent = null;
@@ -211,7 +284,9 @@ public class AVLTreeMap<K, V>
         if (cmp < 0) parent.left = newNode;
         else parent.right = newNode;
         size++;
+        modCount++;
         rebalance(parent);
+        if (stats != null) stats.recordHeight(heightFunc(root));
         return null;
     }
 
@@ -240,6 +315,24 @@ public class AVLTreeMap<K, V>
         return getNode(key) != null;
     }
 
+    // Sentinel for lookupBounded: key absent, or the walk gave up
+    static final Object NOT_FOUND = new Object();
+
+    // Lookup that follows at most maxSteps links, for ConcurrentAVLTreeMap's optimistic
+    // readers: racing a rotation they may see a transient cycle, so the walk is bounded
+    // and the caller validates its stamp before trusting the answer.
+    Object lookupBounded(K key, int maxSteps) 
+    {
+        Node cur = root;
+        for (int steps = 0; cur != null && steps < maxSteps; steps++) 
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp == 0) return cur.value;
+            cur = (cmp < 0) ? cur.left : cur.right;
+        }
+        return NOT_FOUND;
+    }
+
     // remove operation
     public V remove(K key) 
     {
@@ -249,6 +342,8 @@ public class AVLTreeMap<K, V>
         V oldValue = node.value;
         deleteNode(node);
         size--;
+        modCount++;
+        if (stats != null) stats.recordHeight(heightFunc(root));
         return oldValue;
     }
 
@@ -299,6 +394,883 @@ public class AVLTreeMap<K, V>
         }
     }
 
+    /* ---------------- Instrumentation ---------------- */
+
+    // Start counting work into a fresh TreeStats (returned; also available via stats())
+    public TreeStats enableStats() 
+    {
+        stats = new TreeStats();
+        return stats;
+    }
+
+    // Stop counting; the hot paths go back to a single null check
+    public void disableStats() 
+    {
+        stats = null;
+    }
+
+    // Current counters, or null when disabled
+    public TreeStats stats() 
+    {
+        return stats;
+    }
+
+    /* ---------------- Bulk loading ---------------- */
+
+    // Build a map from entries already in ascending key order (natural ordering)
+    public static <K extends Comparable<? super K>, V> AVLTreeMap<K, V> fromSorted(
+            Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) 
+    {
+        return fromSorted(entries, null);
+    }
+
+    // Build a map from entries already in ascending order of the given comparator
+    public static <K, V> AVLTreeMap<K, V> fromSorted(
+            Iterator<? extends Map.Entry<? extends K, ? extends V>> entries, Comparator<? super K> comparator) 
+    {
+        AVLTreeMap<K, V> map = new AVLTreeMap<>(comparator);
+        map.putAllSorted(entries);
+        return map;
+    }
+
+    /**
+     * Add entries given in strictly ascending key order.
+     * The input is checked while it is read: unsorted or duplicate keys throw
+     * IllegalArgumentException and leave the map unchanged. The result is a perfectly
+     * balanced tree built in O(n + m) without a single rotation; when the map already
+     * has entries the two sorted sequences are merged first, and on equal keys the
+     * incoming value replaces the existing one (same as put).
+     */
+    @SuppressWarnings("unchecked")
+    public void putAllSorted(Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) 
+    {
+        ArrayList<K> inKeys = new ArrayList<>();
+        ArrayList<V> inValues = new ArrayList<>();
+        while (entries.hasNext()) 
+        {
+            Map.Entry<? extends K, ? extends V> e = entries.next();
+            K key = e.getKey();
+            if (key == null) throw new IllegalArgumentException("Key cannot be null");
+            if (!inKeys.isEmpty()) 
+            {
+                int cmp = compare(inKeys.get(inKeys.size() - 1), key);
+                if (cmp == 0) throw new IllegalArgumentException("Duplicate key in sorted input: " + key);
+                if (cmp > 0) throw new IllegalArgumentException("Input not sorted at key: " + key);
+            }
+            inKeys.add(key);
+            inValues.add(e.getValue());
+        }
+        if (inKeys.isEmpty()) return;
+
+        // merge existing in-order contents with the incoming run
+        int n = size + inKeys.size();
+        Object[] keys = new Object[n];
+        Object[] values = new Object[n];
+        int count = 0, j = 0;
+        for (Node cur = firstNode(); cur != null; cur = successor(cur)) 
+        {
+            while (j < inKeys.size() && compare(inKeys.get(j), cur.key) < 0) 
+            {
+                keys[count] = inKeys.get(j);
+                values[count++] = inValues.get(j++);
+            }
+            keys[count] = cur.key;
+            if (j < inKeys.size() && compare(inKeys.get(j), cur.key) == 0) values[count++] = inValues.get(j++);
+            else values[count++] = cur.value;
+        }
+        while (j < inKeys.size()) 
+        {
+            keys[count] = inKeys.get(j);
+            values[count++] = inValues.get(j++);
+        }
+
+        root = buildBalanced((K[]) keys, (V[]) values, 0, count - 1, null);
+        size = count;
+        modCount++;
+    }
+
+    // Build a balanced subtree from keys[lo..hi]; heights and sizes set bottom-up
+    private Node buildBalanced(K[] keys, V[] values, int lo, int hi, Node parent) 
+    {
+        if (lo > hi) return null;
+        int mid = (lo + hi) >>> 1;
+        Node n = new Node(keys[mid], values[mid], parent);
+        n.left = buildBalanced(keys, values, lo, mid - 1, n);
+        n.right = buildBalanced(keys, values, mid + 1, hi, n);
+        updateHeight(n);
+        updateSize(n);
+        return n;
+    }
+
+    /* ---------------- On-disk snapshots ---------------- */
+
+    // Write all entries in key order to path in the MappedAVLSnapshot format
+    public void writeSnapshot(Path path, SnapshotSerializer<? super K> keySerializer,
+                              SnapshotSerializer<? super V> valueSerializer) throws IOException 
+    {
+        MappedAVLSnapshot.write(path, iterator(), size, keySerializer, valueSerializer);
+    }
+
+    // Memory-map a snapshot whose keys use natural ordering
+    public static <K extends Comparable<? super K>, V> MappedAVLSnapshot<K, V> openSnapshot(
+            Path path, SnapshotSerializer<K> keySerializer, SnapshotSerializer<V> valueSerializer) throws IOException 
+    {
+        return MappedAVLSnapshot.open(path, keySerializer, valueSerializer, null);
+    }
+
+    // Memory-map a snapshot written by a map ordered with comparator (the file does not record the ordering)
+    public static <K, V> MappedAVLSnapshot<K, V> openSnapshot(Path path, SnapshotSerializer<K> keySerializer,
+            SnapshotSerializer<V> valueSerializer, Comparator<? super K> comparator) throws IOException 
+    {
+        return MappedAVLSnapshot.open(path, keySerializer, valueSerializer, comparator);
+    }
+
+    /* ---------------- Join / split ---------------- */
+
+    // Subtrees larger than this (both inputs combined) fork their halves in parallel
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private enum SetOp { UNION, INTERSECT, DIFFERENCE }
+
+    // Result of splitting a subtree around a key: keys below, the matching node (or null), keys above
+    private class Split 
+    {
+        Node left, mid, right;
+
+        Split(Node left, Node mid, Node right) 
+        {
+            this.left = left;
+            this.mid = mid;
+            this.right = right;
+        }
+    }
+
+    // The helpers below work on detached subtrees: they never touch root,
+    // and the returned subtree root always has parent == null.
+
+    // make k the root of l and r, fixing parent links, height and size
+    private Node link(Node l, Node k, Node r) 
+    {
+        k.left = l;
+        k.right = r;
+        k.parent = null;
+        if (l != null) l.parent = k;
+        if (r != null) r.parent = k;
+        updateHeight(k);
+        updateSize(k);
+        return k;
+    }
+
+    private Node detachedRotateLeft(Node x) 
+    {
+        if (stats != null) stats.rotations++;
+        Node y = x.right;
+        return link(link(x.left, x, y.left), y, y.right);
+    }
+
+    private Node detachedRotateRight(Node y) 
+    {
+        if (stats != null) stats.rotations++;
+        Node x = y.left;
+        return link(x.left, x, link(x.right, y, y.right));
+    }
+
+    // detach n from its children and return them as independent subtrees
+    private Node detachLeft(Node n) 
+    {
+        Node l = n.left;
+        if (l != null) l.parent = null;
+        return l;
+    }
+
+    private Node detachRight(Node n) 
+    {
+        Node r = n.right;
+        if (r != null) r.parent = null;
+        return r;
+    }
+
+    // join: all keys of l < k.key < all keys of r; O(|height(l) - height(r)|)
+    private Node join(Node l, Node k, Node r) 
+    {
+        if (heightFunc(l) > heightFunc(r) + 1) return joinRight(l, k, r);
+        if (heightFunc(r) > heightFunc(l) + 1) return joinLeft(l, k, r);
+        return link(l, k, r);
+    }
+
+    // l is taller: walk down its right spine to a subtree of r's height
+    private Node joinRight(Node l, Node k, Node r) 
+    {
+        Node ll = detachLeft(l), c = detachRight(l);
+        if (heightFunc(c) <= heightFunc(r) + 1) 
+        {
+            Node t = link(c, k, r);
+            if (heightFunc(t) <= heightFunc(ll) + 1) return link(ll, l, t);
+            return detachedRotateLeft(link(ll, l, detachedRotateRight(t)));
+        }
+        Node t = joinRight(c, k, r);
+        Node joined = link(ll, l, t);
+        if (heightFunc(t) <= heightFunc(ll) + 1) return joined;
+        return detachedRotateLeft(joined);
+    }
+
+    // mirror of joinRight
+    private Node joinLeft(Node l, Node k, Node r) 
+    {
+        Node c = detachLeft(r), rr = detachRight(r);
+        if (heightFunc(c) <= heightFunc(l) + 1) 
+        {
+            Node t = link(l, k, c);
+            if (heightFunc(t) <= heightFunc(rr) + 1) return link(t, r, rr);
+            return detachedRotateRight(link(detachedRotateLeft(t), r, rr));
+        }
+        Node t = joinLeft(l, k, c);
+        Node joined = link(t, r, rr);
+        if (heightFunc(t) <= heightFunc(rr) + 1) return joined;
+        return detachedRotateRight(joined);
+    }
+
+    // split t around key in O(log n)
+    private Split split(Node t, K key) 
+    {
+        if (t == null) return new Split(null, null, null);
+        Node l = detachLeft(t), r = detachRight(t);
+        int cmp = compare(key, t.key);
+        if (cmp == 0) return new Split(l, link(null, t, null), r);
+        if (cmp < 0) 
+        {
+            Split s = split(l, key);
+            s.right = join(s.right, t, r);
+            return s;
+        }
+        Split s = split(r, key);
+        s.left = join(l, t, s.left);
+        return s;
+    }
+
+    // remove the maximum node: Split(rest, max, null)
+    private Split splitLast(Node t) 
+    {
+        Node l = detachLeft(t), r = detachRight(t);
+        if (r == null) return new Split(l, link(null, t, null), null);
+        Split s = splitLast(r);
+        s.left = join(l, t, s.left);
+        return s;
+    }
+
+    // join without a middle key: all keys of l < all keys of r
+    private Node join2(Node l, Node r) 
+    {
+        if (l == null) return r;
+        if (r == null) return l;
+        Split s = splitLast(l);
+        return join(s.left, s.mid, r);
+    }
+
+    // Set operations: t1 is split around the root of t2, then the two halves recurse
+    private Node setOp(SetOp op, Node t1, Node t2) 
+    {
+        if (t1 == null) return (op == SetOp.UNION) ? t2 : null;
+        if (t2 == null) return (op == SetOp.INTERSECT) ? null : t1;
+
+        Node l2 = detachLeft(t2), r2 = detachRight(t2);
+        boolean parallel = forkable(t1, t2);
+        Split s = split(t1, t2.key);
+
+        Node tl, tr;
+        if (parallel) 
+        {
+            SetOpTask leftTask = new SetOpTask(op, s.left, l2);
+            leftTask.fork();
+            tr = setOp(op, s.right, r2);
+            tl = leftTask.join();
+        } 
+        else 
+        {
+            tl = setOp(op, s.left, l2);
+            tr = setOp(op, s.right, r2);
+        }
+
+        switch (op) 
+        {
+            case UNION:
+                return join(tl, t2, tr); // other's value wins, like put
+            case INTERSECT:
+                return (s.mid != null) ? join(tl, s.mid, tr) : join2(tl, tr);
+            default:
+                return join2(tl, tr);
+        }
+    }
+
+    // TreeStats counters are plain fields, so stay sequential while stats are enabled
+    private boolean forkable(Node t1, Node t2) 
+    {
+        return stats == null && sizeFunc(t1) + sizeFunc(t2) >= PARALLEL_THRESHOLD;
+    }
+
+    private class SetOpTask extends RecursiveTask<Node> 
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final SetOp op;
+        private final Node t1, t2;
+
+        SetOpTask(SetOp op, Node t1, Node t2) 
+        {
+            this.op = op;
+            this.t1 = t1;
+            this.t2 = t2;
+        }
+
+        @Override
+        protected Node compute() 
+        {
+            return setOp(op, t1, t2);
+        }
+    }
+
+    private void checkCompatible(AVLTreeMap<K, V> other) 
+    {
+        if (other == null) throw new IllegalArgumentException("Other map cannot be null");
+        if (!Objects.equals(comp, other.comp)) throw new IllegalArgumentException("Maps use different orderings");
+    }
+
+    private void runSetOp(SetOp op, AVLTreeMap<K, V> other) 
+    {
+        checkCompatible(other);
+        if (other == this) 
+        {
+            if (op == SetOp.DIFFERENCE) clearTree();
+            return;
+        }
+        Node t1 = root, t2 = other.root;
+        other.clearTree();
+        Node result;
+        if (forkable(t1, t2)) result = ForkJoinPool.commonPool().invoke(new SetOpTask(op, t1, t2));
+        else result = setOp(op, t1, t2);
+        root = result;
+        size = sizeFunc(result);
+        modCount++;
+    }
+
+    private void clearTree() 
+    {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    // Set operations. The result replaces this map's contents; other is left empty
+    // because its nodes are reused in the result. Work is O(m log(n/m + 1)) for sizes
+    // m <= n, and large inputs recurse on both halves in parallel (sequentially while
+    // stats are enabled, so the counters stay exact).
+
+    // this = this ∪ other (other's value wins on equal keys)
+    public void union(AVLTreeMap<K, V> other) 
+    {
+        runSetOp(SetOp.UNION, other);
+    }
+
+    // this = this ∩ other (this map's values are kept)
+    public void intersect(AVLTreeMap<K, V> other) 
+    {
+        runSetOp(SetOp.INTERSECT, other);
+    }
+
+    // this = this \ other
+    public void difference(AVLTreeMap<K, V> other) 
+    {
+        runSetOp(SetOp.DIFFERENCE, other);
+    }
+
+    // Move every entry with key >= key into a new map, in O(log n)
+    public AVLTreeMap<K, V> split(K key) 
+    {
+        checkedKey(key);
+        Split s = split(root, key);
+        Node upper = (s.mid == null) ? s.right : join(null, s.mid, s.right);
+        root = s.left;
+        size = sizeFunc(root);
+        modCount++;
+
+        AVLTreeMap<K, V> result = new AVLTreeMap<>(comp);
+        result.root = upper;
+        result.size = sizeFunc(upper);
+        return result;
+    }
+
+    // Append all entries of higher (every key greater than this map's keys) in O(log n); higher is left empty
+    public void join(AVLTreeMap<K, V> higher) 
+    {
+        checkCompatible(higher);
+        if (higher == this || higher.root == null) return;
+        if (root != null && compare(lastKey(), higher.firstKey()) >= 0) 
+            throw new IllegalArgumentException("Keys of joined map must all be greater than this map's keys");
+        Node upper = higher.root;
+        higher.clearTree();
+        if (root == null) root = upper;
+        else 
+        {
+            Split s = splitLast(root);
+            root = join(s.left, s.mid, upper);
+        }
+        size = sizeFunc(root);
+        modCount++;
+    }
+
+    /* ---------------- Order statistics ---------------- */
+
+    // rank: number of keys strictly less than key (key need not be present)
+    public int rank(K key) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        int r = 0;
+        Node cur = root;
+        while (cur != null) 
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp <= 0) cur = cur.left;
+            else 
+            {
+                r += sizeFunc(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return r;
+    }
+
+    // number of keys less than or equal to key
+    private int rankInclusive(K key) 
+    {
+        int r = 0;
+        Node cur = root;
+        while (cur != null) 
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp < 0) cur = cur.left;
+            else 
+            {
+                r += sizeFunc(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return r;
+    }
+
+    // select: key at position i (0-based) of the sorted order
+    public K select(int i) 
+    {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + " out of range for size " + size);
+        return selectNode(i).key;
+    }
+
+    // node at position i, 0 <= i < size
+    private Node selectNode(int i) 
+    {
+        Node cur = root;
+        while (true) 
+        {
+            int leftSize = sizeFunc(cur.left);
+            if (i < leftSize) cur = cur.left;
+            else if (i == leftSize) return cur;
+            else 
+            {
+                i -= leftSize + 1;
+                cur = cur.right;
+            }
+        }
+    }
+
+    // countInRange: number of keys k with lo <= k <= hi
+    public int countInRange(K lo, K hi) 
+    {
+        if (lo == null || hi == null) throw new IllegalArgumentException("Bounds cannot be null");
+        if (compare(lo, hi) > 0) return 0;
+        return rankInclusive(hi) - rank(lo);
+    }
+
+    /* ---------------- Navigation ---------------- */
+
+    private Node firstNode() 
+    {
+        Node n = root;
+        if (n != null) while (n.left != null) n = n.left;
+        return n;
+    }
+
+    private Node lastNode() 
+    {
+        Node n = root;
+        if (n != null) while (n.right != null) n = n.right;
+        return n;
+    }
+
+    // in-order successor using parent pointers (no recursion, no stack)
+    private Node successor(Node n) 
+    {
+        if (n.right != null) 
+        {
+            Node s = n.right;
+            while (s.left != null) s = s.left;
+            return s;
+        }
+        Node p = n.parent;
+        while (p != null && n == p.right) 
+        {
+            n = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    // in-order predecessor, mirror of successor
+    private Node predecessor(Node n) 
+    {
+        if (n.left != null) 
+        {
+            Node s = n.left;
+            while (s.right != null) s = s.right;
+            return s;
+        }
+        Node p = n.parent;
+        while (p != null && n == p.left) 
+        {
+            n = p;
+            p = p.parent;
+        }
+        return p;
+    }
+
+    // smallest node with key >= key (inclusive) or > key (exclusive)
+    private Node ceilingNode(K key, boolean inclusive) 
+    {
+        Node cur = root, best = null;
+        while (cur != null) 
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp < 0 || (cmp == 0 && inclusive)) 
+            {
+                best = cur;
+                if (cmp == 0) return cur;
+                cur = cur.left;
+            } 
+            else cur = cur.right;
+        }
+        return best;
+    }
+
+    // largest node with key <= key (inclusive) or < key (exclusive)
+    private Node floorNode(K key, boolean inclusive) 
+    {
+        Node cur = root, best = null;
+        while (cur != null) 
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp > 0 || (cmp == 0 && inclusive)) 
+            {
+                best = cur;
+                if (cmp == 0) return cur;
+                cur = cur.right;
+            } 
+            else cur = cur.left;
+        }
+        return best;
+    }
+
+    private K keyOrNull(Node n) 
+    {
+        return (n == null) ? null : n.key;
+    }
+
+    private K checkedKey(K key) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        return key;
+    }
+
+    // greatest key <= key, or null
+    public K floorKey(K key) 
+    {
+        return keyOrNull(floorNode(checkedKey(key), true));
+    }
+
+    // least key >= key, or null
+    public K ceilingKey(K key) 
+    {
+        return keyOrNull(ceilingNode(checkedKey(key), true));
+    }
+
+    // least key > key, or null
+    public K higherKey(K key) 
+    {
+        return keyOrNull(ceilingNode(checkedKey(key), false));
+    }
+
+    // greatest key < key, or null
+    public K lowerKey(K key) 
+    {
+        return keyOrNull(floorNode(checkedKey(key), false));
+    }
+
+    public K firstKey() 
+    {
+        if (root == null) throw new NoSuchElementException("Map is empty");
+        return firstNode().key;
+    }
+
+    public K lastKey() 
+    {
+        if (root == null) throw new NoSuchElementException("Map is empty");
+        return lastNode().key;
+    }
+
+    /* ---------------- Iteration and range views ---------------- */
+
+    // Iterates all entries in ascending key order
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() 
+    {
+        return new EntryIterator(firstNode(), null);
+    }
+
+    // View of keys in [fromKey, toKey)
+    public RangeView subMap(K fromKey, K toKey) 
+    {
+        checkedKey(fromKey);
+        checkedKey(toKey);
+        if (compare(fromKey, toKey) > 0) throw new IllegalArgumentException("fromKey > toKey");
+        return new RangeView(fromKey, toKey);
+    }
+
+    // View of keys < toKey
+    public RangeView headMap(K toKey) 
+    {
+        return new RangeView(null, checkedKey(toKey));
+    }
+
+    // View of keys >= fromKey
+    public RangeView tailMap(K fromKey) 
+    {
+        return new RangeView(checkedKey(fromKey), null);
+    }
+
+    /**
+     * Lazy view over a key range [lo, hi) of this map (null bound = unbounded).
+     * Nothing is copied: iteration starts at the ceiling of lo and walks successors
+     * until hi, and the view reflects later changes to the map.
+     */
+    public class RangeView implements Iterable<Map.Entry<K, V>> 
+    {
+        private final K lo, hi;
+
+        private RangeView(K lo, K hi) 
+        {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        private boolean inRange(K key) 
+        {
+            return (lo == null || compare(key, lo) >= 0) && (hi == null || compare(key, hi) < 0);
+        }
+
+        public V get(K key) 
+        {
+            return inRange(checkedKey(key)) ? AVLTreeMap.this.get(key) : null;
+        }
+
+        public boolean containsKey(K key) 
+        {
+            return inRange(checkedKey(key)) && AVLTreeMap.this.containsKey(key);
+        }
+
+        // O(log n) using subtree sizes
+        public int size() 
+        {
+            int below = (hi == null) ? size : rank(hi);
+            int above = (lo == null) ? 0 : rank(lo);
+            return below - above;
+        }
+
+        public boolean isEmpty() 
+        {
+            return size() == 0;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() 
+        {
+            Node first = (lo == null) ? firstNode() : ceilingNode(lo, true);
+            return new EntryIterator(first, hi);
+        }
+    }
+
+    // Ascending iterator over [first, hi); fails fast on concurrent structural change
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> 
+    {
+        private Node next;
+        private Node lastReturned;
+        private final K hi;
+        private int expectedModCount = modCount;
+
+        EntryIterator(Node first, K hi) 
+        {
+            this.hi = hi;
+            this.next = (first != null && hi != null && compare(first.key, hi) >= 0) ? null : first;
+        }
+
+        @Override
+        public boolean hasNext() 
+        {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() 
+        {
+            if (next == null) throw new NoSuchElementException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            lastReturned = next;
+            Node s = successor(next);
+            next = (s != null && hi != null && compare(s.key, hi) >= 0) ? null : s;
+            return new AbstractMap.SimpleImmutableEntry<>(lastReturned.key, lastReturned.value);
+        }
+
+        @Override
+        public void remove() 
+        {
+            if (lastReturned == null) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // deleteNode copies the successor into a node with two children,
+            // so the next entry to visit then lives in lastReturned itself
+            // (unless the range bound already ended the iteration)
+            if (next != null && lastReturned.left != null && lastReturned.right != null) next = lastReturned;
+            deleteNode(lastReturned);
+            size--;
+            modCount++;
+            expectedModCount = modCount;
+            lastReturned = null;
+        }
+    }
+
+    /* ---------------- Spliterator and streams ---------------- */
+
+    // Ordered, sorted, exactly sized spliterator over all entries; binds to the map on first use
+    public Spliterator<Map.Entry<K, V>> entrySpliterator() 
+    {
+        return new EntrySpliterator(null, 0, -1, 0);
+    }
+
+    public Stream<Map.Entry<K, V>> stream() 
+    {
+        return StreamSupport.stream(entrySpliterator(), false);
+    }
+
+    // Parallel stream over the entries, split by rank with no intermediate copy
+    public Stream<Map.Entry<K, V>> parallelStream() 
+    {
+        return StreamSupport.stream(entrySpliterator(), true);
+    }
+
+    /**
+     * Spliterator over the entries at ranks [index, fence).
+     * trySplit hands off [index, mid) and keeps [mid, fence), where mid is the middle
+     * rank; the node there is found with one O(log n) descent through subtree sizes,
+     * and only when this half starts walking. Since every part knows its exact
+     * count, the spliterator is SIZED and SUBSIZED and the halves are always even,
+     * which a split at the tree's own subtree roots could not guarantee for AVL's
+     * uneven subtrees. Walking a part uses successor links, O(1) amortized per entry.
+     */
+    private class EntrySpliterator implements Spliterator<Map.Entry<K, V>> 
+    {
+        private Node current;   // node at rank index, null until located
+        private int index;
+        private int fence;      // -1 until bound to the map
+        private int expectedModCount;
+
+        EntrySpliterator(Node current, int index, int fence, int expectedModCount) 
+        {
+            this.current = current;
+            this.index = index;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() 
+        {
+            if (fence < 0) 
+            {
+                fence = size;
+                expectedModCount = modCount;
+            }
+            return fence;
+        }
+
+        // node at rank index, located on first use
+        private Node currentNode() 
+        {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (current == null) current = selectNode(index);
+            return current;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() 
+        {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            if (mid <= lo) return null;
+            Spliterator<Map.Entry<K, V>> prefix = new EntrySpliterator(current, lo, mid, expectedModCount);
+            index = mid;
+            current = null;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) 
+        {
+            if (action == null) throw new NullPointerException();
+            if (index >= getFence()) return false;
+            Node e = currentNode();
+            current = (++index < fence) ? successor(e) : null;
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(e.key, e.value));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) 
+        {
+            if (action == null) throw new NullPointerException();
+            int hi = getFence();
+            if (index >= hi) return;
+            Node e = currentNode();
+            for (int i = index; i < hi; i++, e = successor(e)) 
+                action.accept(new AbstractMap.SimpleImmutableEntry<>(e.key, e.value));
+            index = hi;
+            current = null;
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() 
+        {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() 
+        {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.SORTED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Map.Entry<K, V>> getComparator() 
+        {
+            return (a, b) -> compare(a.getKey(), b.getKey());
+        }
+    }
+
     // Utility: print tree sideways for inspection
     public void printTree() 
     {
@@ -326,7 +1298,7 @@ public class AVLTreeMap<K, V>
 
     private String formatNode(Node n) 
     {
-        return String.format("(%s:%s)[h=%d]", n.key, n.value, n.nodeHeight);
+        return String.format("(%s:%s)[h=%d,s=%d]", n.key, n.value, n.nodeHeight, n.subtreeSize);
     }
 
     // For debugging/verification: in-order traversal prints sorted keys
@@ -387,5 +1359,69 @@ public class AVLTreeMap<K, V>
         }
 
         System.out.println("\nFinal map size: " + map.size());
+
+        // Order statistics on the remaining keys
+        System.out.println("\nOrder statistics:");
+        System.out.println("rank(26) = " + map.rank(26));
+        System.out.println("select(0) = " + map.select(0) + ", select(" + (map.size() - 1) + ") = " + map.select(map.size() - 1));
+        System.out.println("countInRange(15, 35) = " + map.countInRange(15, 35));
+
+        // Navigation and range views
+        System.out.println("\nNavigation:");
+        System.out.println("floorKey(26) = " + map.floorKey(26) + ", ceilingKey(26) = " + map.ceilingKey(26));
+        System.out.println("lowerKey(25) = " + map.lowerKey(25) + ", higherKey(25) = " + map.higherKey(25));
+        System.out.println("firstKey = " + map.firstKey() + ", lastKey = " + map.lastKey());
+        System.out.print("subMap(15, 35): ");
+        for (Map.Entry<Integer, String> e : map.subMap(15, 35)) System.out.print(e.getKey() + " ");
+        System.out.println();
+
+        // Removing through a bounded view must not step past the upper bound
+        AVLTreeMap<Integer, String> ranged = new AVLTreeMap<>();
+        for (int k = 0; k < 15; k++) ranged.put(k, "v" + k);
+        Iterator<Map.Entry<Integer, String>> rit = ranged.subMap(7, 8).iterator();
+        Map.Entry<Integer, String> removed = rit.next();
+        rit.remove();
+        System.out.println("subMap(7, 8): removed " + removed.getKey() + ", hasNext = " + rit.hasNext()
+                + ", containsKey(7) = " + ranged.containsKey(7) + ", size = " + ranged.size());
+
+        // Bulk load from sorted input
+        Map<Integer, String> sorted = new TreeMap<>();
+        for (int k = 1; k <= 15; k++) sorted.put(k, "v" + k);
+        AVLTreeMap<Integer, String> bulk = AVLTreeMap.fromSorted(sorted.entrySet().iterator());
+        System.out.println("\nfromSorted(1..15):");
+        bulk.printTree();
+
+        // Set operations on join/split
+        AVLTreeMap<Integer, String> evens = new AVLTreeMap<>();
+        AVLTreeMap<Integer, String> threes = new AVLTreeMap<>();
+        for (int k = 0; k <= 20; k += 2) evens.put(k, "e" + k);
+        for (int k = 0; k <= 20; k += 3) threes.put(k, "t" + k);
+        evens.union(threes);
+        System.out.println("\nunion of multiples of 2 and 3 up to 20:");
+        evens.printInOrder();
+        AVLTreeMap<Integer, String> upper = evens.split(10);
+        System.out.print("split(10): lower ");
+        evens.printInOrder();
+        System.out.print("           upper ");
+        upper.printInOrder();
+        evens.join(upper);
+        System.out.print("joined back: ");
+        evens.printInOrder();
+
+        // Retrace work with early exit: random inserts then deletes
+        AVLTreeMap<Integer, Integer> big = new AVLTreeMap<>();
+        TreeStats stats = big.enableStats();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100_000; i++) big.put(rnd.nextInt(1_000_000), i);
+        for (int i = 0; i < 50_000; i++) big.remove(rnd.nextInt(1_000_000));
+        long walked = stats.retraceSteps() + stats.retraceSkipped();
+        System.out.println("\nStats after 100k random puts and 50k removes: " + stats);
+        System.out.printf("Early exit re-examined %d of %d ancestors (%.1f%% of retracing skipped)%n",
+                stats.retraceSteps(), walked, 100.0 * stats.retraceSkipped() / walked);
+        big.disableStats();
+
+        // Parallel aggregation straight off the tree
+        long evenValues = big.parallelStream().filter(e -> e.getKey() % 2 == 0).mapToLong(Map.Entry::getValue).sum();
+        System.out.println("Sum of values at even keys via parallelStream: " + evenValues);
     }
 }
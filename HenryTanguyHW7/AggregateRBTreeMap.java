@@ -0,0 +1,173 @@
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * AggregateRBTreeMap<K,V,A>
+ *
+ * RBTreeMap that keeps a per-subtree aggregate of its values.
+ * -----------------------------------------------------
+ * • The aggregate comes from a user-supplied Monoid: an identity, a lift from
+ *   one value to an aggregate, and an associative combine (sum, min, max, count...).
+ * • Node.agg = combine(agg(left), lift(value), agg(right)), in key order, so the
+ *   combine does not have to be commutative.
+ * • aggregate(lo, hi) folds the values of keys in [lo, hi] in O(log n) by
+ *   combining whole subtrees instead of visiting entries.
+ * • Writes stay O(log n): RBTreeMap's augmentation hooks recompute only the
+ *   rotated nodes and the path to the root.
+ */
+
+public class AggregateRBTreeMap<K, V, A> extends RBTreeMap<K, V>
+{
+    /* ---------------- Monoid ---------------- */
+    public interface Monoid<V, A>
+    {
+        A identity();
+        A lift(V value);
+        A combine(A left, A right); // must be associative
+
+        static <V, A> Monoid<V, A> of(A identity, Function<? super V, ? extends A> lift, BinaryOperator<A> combine)
+        {
+            return new Monoid<V, A>()
+            {
+                public A identity() { return identity; }
+                public A lift(V value) { return lift.apply(value); }
+                public A combine(A left, A right) { return combine.apply(left, right); }
+            };
+        }
+
+        // Sum of numeric values as a long (null values count as 0)
+        static <V extends Number> Monoid<V, Long> longSum()
+        {
+            return of(0L, v -> (v == null) ? 0L : v.longValue(), Long::sum);
+        }
+
+        // Number of entries
+        static <V> Monoid<V, Long> count()
+        {
+            return of(0L, v -> 1L, Long::sum);
+        }
+
+        // Smallest value; null stands for "no values"
+        static <V> Monoid<V, V> min(Comparator<? super V> order)
+        {
+            return of(null, v -> v, (a, b) -> (a == null) ? b : (b == null) ? a : (order.compare(b, a) < 0 ? b : a));
+        }
+
+        // Largest value; null stands for "no values"
+        static <V> Monoid<V, V> max(Comparator<? super V> order)
+        {
+            return of(null, v -> v, (a, b) -> (a == null) ? b : (b == null) ? a : (order.compare(b, a) > 0 ? b : a));
+        }
+    }
+
+    private final Monoid<? super V, A> monoid;
+
+    /* ---------------- Constructors ---------------- */
+    public AggregateRBTreeMap(Monoid<? super V, A> monoid) { this(null, monoid); }
+
+    public AggregateRBTreeMap(Comparator<? super K> comparator, Monoid<? super V, A> monoid)
+    {
+        super(comparator, true);
+        if (monoid == null) throw new IllegalArgumentException("Monoid cannot be null");
+        this.monoid = monoid;
+    }
+
+    /* ---------------- Subtree summary ---------------- */
+    @Override
+    void updateAgg(Node n)
+    {
+        n.agg = monoid.combine(monoid.combine(aggOf(n.left), monoid.lift(n.value)), aggOf(n.right));
+    }
+
+    @SuppressWarnings("unchecked")
+    private A aggOf(Node n)
+    {
+        return (n == NIL) ? monoid.identity() : (A) n.agg;
+    }
+
+    /* ---------------- Queries ---------------- */
+
+    // Aggregate of every value in the map, O(1)
+    public A aggregate()
+    {
+        return aggOf(root);
+    }
+
+    // Aggregate of values whose keys lie in [lo, hi] (inclusive), in key order
+    public A aggregate(K lo, K hi)
+    {
+        if (compare(lo, hi) > 0) return monoid.identity();
+
+        // Descend to the highest node inside [lo, hi]; every in-range key lies below it
+        Node split = root;
+        while (split != NIL)
+        {
+            if (compare(split.key, lo) < 0) split = split.right;
+            else if (compare(split.key, hi) > 0) split = split.left;
+            else break;
+        }
+        if (split == NIL) return monoid.identity();
+
+        // Left spine: keys >= lo. Each in-range node brings its whole right subtree,
+        // and everything gathered so far lies to its right.
+        A left = monoid.identity();
+        for (Node x = split.left; x != NIL; )
+        {
+            if (compare(x.key, lo) >= 0)
+            {
+                left = monoid.combine(monoid.combine(monoid.lift(x.value), aggOf(x.right)), left);
+                x = x.left;
+            }
+            else x = x.right;
+        }
+
+        // Right spine: keys <= hi, mirror image of the left one
+        A right = monoid.identity();
+        for (Node x = split.right; x != NIL; )
+        {
+            if (compare(x.key, hi) <= 0)
+            {
+                right = monoid.combine(right, monoid.combine(aggOf(x.left), monoid.lift(x.value)));
+                x = x.right;
+            }
+            else x = x.left;
+        }
+
+        return monoid.combine(monoid.combine(left, monoid.lift(split.value)), right);
+    }
+
+    public static void main(String[] args)
+    {
+        AggregateRBTreeMap<Integer, Integer, Long> sums = new AggregateRBTreeMap<>(Monoid.longSum());
+        AggregateRBTreeMap<Integer, Integer, Integer> maxes = new AggregateRBTreeMap<>(Monoid.<Integer>max(Comparator.naturalOrder()));
+        for (int k = 1; k <= 10; k++)
+        {
+            sums.put(k, k * k);
+            maxes.put(k, (k * 37) % 11);
+        }
+        System.out.println("sum of squares over [3, 7]: " + sums.aggregate(3, 7));       // 135
+        System.out.println("max over [2, 5]: " + maxes.aggregate(2, 5));
+        sums.remove(5);
+        sums.merge(6, 100, Integer::sum);
+        System.out.println("after remove(5), merge(6, +100): " + sums.aggregate(3, 7)); // 210
+
+        // Range sums on a large map: each query touches O(log n) nodes, not the entries in range
+        int n = 1_000_000;
+        Random rnd = new Random(42);
+        AggregateRBTreeMap<Integer, Integer, Long> big = new AggregateRBTreeMap<>(Monoid.longSum());
+        for (int i = 0; i < n; i++) big.put(rnd.nextInt(10 * n), rnd.nextInt(1000));
+
+        int queries = 1000;
+        long t0 = System.nanoTime(), check = 0;
+        for (int q = 0; q < queries; q++)
+        {
+            int lo = rnd.nextInt(10 * n);
+            check += big.aggregate(lo, lo + n);
+        }
+        long t1 = System.nanoTime();
+        System.out.printf("aggregate(lo, hi) on %,d keys: %.2f us/query (checksum %d)%n",
+                big.size(), (t1 - t0) / 1e3 / queries, check);
+    }
+}
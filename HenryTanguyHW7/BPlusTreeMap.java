@@ -0,0 +1,535 @@
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * BPlusTreeMap<K,V>
+ *
+ * Cache-friendly B+tree map with the same surface as RBTreeMap.
+ * -----------------------------------------------------
+ * • put(), get(), remove(), containsKey(), size(), printTree().
+ * • Configurable fan-out: every node keeps its keys in one array, so a lookup
+ *   touches about log_fanout(n) nodes instead of log2(n) scattered heap objects.
+ * • Values live only in leaves; leaves are doubly linked for sequential scans
+ *   (iterator(), range()).
+ *
+ * Invariants: every node except the root holds between minKeys and maxKeys keys;
+ * an inner node with n keys has n + 1 children, and for each separator every key
+ * in the subtree to its left is smaller and every key to its right is >= it.
+ */
+
+public class BPlusTreeMap<K, V> implements Iterable<Map.Entry<K, V>>
+{
+    private static final int DEFAULT_FANOUT = 64;
+
+    /* ---------------- Tree state ---------------- */
+    private Node root;        // null when empty
+    private Leaf firstLeaf;   // head of the leaf chain
+    private int size = 0;
+    private int height = 0;   // inner levels above the leaves
+    private final int maxKeys;
+    private final int minKeys;
+    private final Comparator<? super K> comp;
+
+    // Reused root-to-leaf path of the current put/remove (inner node and child slot per level)
+    private Inner[] path = newPath(8);
+    private int[] slots = new int[8];
+
+    /* ---------------- Node definitions ---------------- */
+    // Arrays have one spare slot so a node may overflow by one key before it is split.
+    private abstract class Node
+    {
+        int n;          // number of keys in use
+        final Object[] keys = new Object[maxKeys + 1];
+
+        @SuppressWarnings("unchecked")
+        K key(int i) { return (K) keys[i]; }
+    }
+
+    private class Leaf extends Node
+    {
+        final Object[] values = new Object[maxKeys + 1];
+        Leaf prev, next;
+
+        @SuppressWarnings("unchecked")
+        V value(int i) { return (V) values[i]; }
+    }
+
+    private class Inner extends Node
+    {
+        final Node[] children = newChildren(maxKeys + 2);
+    }
+
+    // Arrays of inner classes of a generic class can only be created raw
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Inner[] newPath(int size)
+    {
+        return new BPlusTreeMap.Inner[size];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node[] newChildren(int size)
+    {
+        return new BPlusTreeMap.Node[size];
+    }
+
+    /* ---------------- Constructors ---------------- */
+    public BPlusTreeMap() { this(DEFAULT_FANOUT, null); }
+
+    public BPlusTreeMap(int fanout) { this(fanout, null); }
+
+    public BPlusTreeMap(Comparator<? super K> comparator) { this(DEFAULT_FANOUT, comparator); }
+
+    // fanout = maximum number of children of an inner node (>= 4)
+    public BPlusTreeMap(int fanout, Comparator<? super K> comparator)
+    {
+        if (fanout < 4) throw new IllegalArgumentException("Fan-out must be at least 4");
+        this.maxKeys = fanout - 1;
+        this.minKeys = maxKeys / 2;
+        this.comp = comparator;
+    }
+
+    /* ---------------- Key comparison helpers ---------------- */
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b)
+    {
+        if (a == null || b == null)
+            throw new IllegalArgumentException("Keys must be non-null");
+        if (comp != null) return comp.compare(a, b);
+        return ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    // Binary search in a node: index if found, else -(insertion point) - 1
+    private int search(Node node, K key)
+    {
+        int lo = 0, hi = node.n - 1;
+        while (lo <= hi)
+        {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(node.key(mid), key);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // Child slot to follow for key: keys equal to a separator live in its right subtree
+    private int childIndex(Inner node, K key)
+    {
+        int i = search(node, key);
+        return (i >= 0) ? i + 1 : -(i + 1);
+    }
+
+    private Leaf findLeaf(K key)
+    {
+        Node cur = root;
+        while (cur instanceof BPlusTreeMap.Inner)
+        {
+            Inner in = (Inner) cur;
+            cur = in.children[childIndex(in, key)];
+        }
+        return (Leaf) cur;
+    }
+
+    // Walk to the leaf for key, recording the path for splits/merges
+    private Leaf descend(K key)
+    {
+        if (path.length < height)
+        {
+            path = Arrays.copyOf(path, height * 2);
+            slots = Arrays.copyOf(slots, height * 2);
+        }
+        Node cur = root;
+        for (int depth = 0; depth < height; depth++)
+        {
+            Inner in = (Inner) cur;
+            int c = childIndex(in, key);
+            path[depth] = in;
+            slots[depth] = c;
+            cur = in.children[c];
+        }
+        return (Leaf) cur;
+    }
+
+    /* ---------------- Lookup ---------------- */
+
+    public V get(K key)
+    {
+        if (root == null) return null;
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        return (i >= 0) ? leaf.value(i) : null;
+    }
+
+    public boolean containsKey(K key)
+    {
+        if (root == null) return false;
+        return search(findLeaf(key), key) >= 0;
+    }
+
+    /* ---------------- Insertion ---------------- */
+
+    /**
+     * Insert a key/value pair.
+     * If key already exists, replace its value.
+     * Returns the old value or null if new key.
+     */
+    public V put(K key, V value)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (root == null)
+        {
+            Leaf leaf = new Leaf();
+            leaf.keys[0] = key;
+            leaf.values[0] = value;
+            leaf.n = 1;
+            root = firstLeaf = leaf;
+            size = 1;
+            return null;
+        }
+
+        Leaf leaf = descend(key);
+        int i = search(leaf, key);
+        if (i >= 0)
+        {
+            V old = leaf.value(i);
+            leaf.values[i] = value;
+            return old;
+        }
+        i = -(i + 1);
+        System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.n - i);
+        System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.n - i);
+        leaf.keys[i] = key;
+        leaf.values[i] = value;
+        leaf.n++;
+        size++;
+
+        if (leaf.n > maxKeys) splitLeaf(leaf);
+        return null;
+    }
+
+    private void splitLeaf(Leaf leaf)
+    {
+        Leaf right = new Leaf();
+        int keep = leaf.n / 2;
+        right.n = leaf.n - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, right.n);
+        System.arraycopy(leaf.values, keep, right.values, 0, right.n);
+        clear(leaf.keys, keep, leaf.n);
+        clear(leaf.values, keep, leaf.n);
+        leaf.n = keep;
+
+        // link into the leaf chain
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null) leaf.next.prev = right;
+        leaf.next = right;
+
+        insertIntoParent(leaf, right.key(0), right);
+    }
+
+    // Add separator/right child next to left; split inner nodes upward as needed
+    private void insertIntoParent(Node left, K sep, Node right)
+    {
+        int depth = height;
+        while (true)
+        {
+            if (depth == 0)
+            {
+                // left was the root: grow the tree by one level
+                Inner newRoot = new Inner();
+                newRoot.keys[0] = sep;
+                newRoot.children[0] = left;
+                newRoot.children[1] = right;
+                newRoot.n = 1;
+                root = newRoot;
+                height++;
+                return;
+            }
+            Inner p = path[--depth];
+            int c = slots[depth];
+            System.arraycopy(p.keys, c, p.keys, c + 1, p.n - c);
+            System.arraycopy(p.children, c + 1, p.children, c + 2, p.n - c);
+            p.keys[c] = sep;
+            p.children[c + 1] = right;
+            p.n++;
+            if (p.n <= maxKeys) return;
+
+            // split inner node: the middle key moves up
+            Inner r = new Inner();
+            int mid = p.n / 2;
+            K up = p.key(mid);
+            r.n = p.n - mid - 1;
+            System.arraycopy(p.keys, mid + 1, r.keys, 0, r.n);
+            System.arraycopy(p.children, mid + 1, r.children, 0, r.n + 1);
+            clear(p.keys, mid, p.n);
+            clear(p.children, mid + 1, p.n + 1);
+            p.n = mid;
+
+            left = p;
+            sep = up;
+            right = r;
+        }
+    }
+
+    /* ---------------- Deletion ---------------- */
+
+    public V remove(K key)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (root == null) return null;
+
+        Leaf leaf = descend(key);
+        int i = search(leaf, key);
+        if (i < 0) return null;
+        V old = leaf.value(i);
+        System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.n - i - 1);
+        System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.n - i - 1);
+        leaf.n--;
+        leaf.keys[leaf.n] = null;
+        leaf.values[leaf.n] = null;
+        size--;
+
+        if (size == 0)
+        {
+            root = firstLeaf = null;
+            height = 0;
+            return old;
+        }
+        fixUnderflow(leaf);
+        return old;
+    }
+
+    // Restore minimum occupancy from node upward by borrowing from or merging with a sibling
+    private void fixUnderflow(Node node)
+    {
+        int depth = height;
+        while (depth > 0 && node.n < minKeys)
+        {
+            Inner p = path[--depth];
+            int c = slots[depth];
+            Node left = (c > 0) ? p.children[c - 1] : null;
+            Node right = (c < p.n) ? p.children[c + 1] : null;
+
+            if (left != null && left.n > minKeys) borrowFromLeft(node, left, p, c);
+            else if (right != null && right.n > minKeys) borrowFromRight(node, right, p, c);
+            else if (left != null) merge(left, node, p, c - 1);
+            else merge(node, right, p, c);
+            node = p;
+        }
+        // an inner root left without keys is replaced by its only child
+        if (root instanceof BPlusTreeMap.Inner && root.n == 0)
+        {
+            root = ((Inner) root).children[0];
+            height--;
+        }
+    }
+
+    private void borrowFromLeft(Node node, Node left, Inner p, int c)
+    {
+        System.arraycopy(node.keys, 0, node.keys, 1, node.n);
+        if (node instanceof BPlusTreeMap.Leaf)
+        {
+            Leaf l = (Leaf) left, nd = (Leaf) node;
+            System.arraycopy(nd.values, 0, nd.values, 1, nd.n);
+            nd.keys[0] = l.keys[l.n - 1];
+            nd.values[0] = l.values[l.n - 1];
+            l.keys[l.n - 1] = l.values[l.n - 1] = null;
+            p.keys[c - 1] = nd.keys[0];
+        }
+        else
+        {
+            Inner l = (Inner) left, nd = (Inner) node;
+            System.arraycopy(nd.children, 0, nd.children, 1, nd.n + 1);
+            nd.keys[0] = p.keys[c - 1];
+            nd.children[0] = l.children[l.n];
+            p.keys[c - 1] = l.keys[l.n - 1];
+            l.keys[l.n - 1] = null;
+            l.children[l.n] = null;
+        }
+        left.n--;
+        node.n++;
+    }
+
+    private void borrowFromRight(Node node, Node right, Inner p, int c)
+    {
+        if (node instanceof BPlusTreeMap.Leaf)
+        {
+            Leaf r = (Leaf) right, nd = (Leaf) node;
+            nd.keys[nd.n] = r.keys[0];
+            nd.values[nd.n] = r.values[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.values, 1, r.values, 0, r.n - 1);
+            r.keys[r.n - 1] = r.values[r.n - 1] = null;
+            p.keys[c] = r.keys[0];
+        }
+        else
+        {
+            Inner r = (Inner) right, nd = (Inner) node;
+            nd.keys[nd.n] = p.keys[c];
+            nd.children[nd.n + 1] = r.children[0];
+            p.keys[c] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.n);
+            r.keys[r.n - 1] = null;
+            r.children[r.n] = null;
+        }
+        right.n--;
+        node.n++;
+    }
+
+    // Fold right into left; sep is the index of their separator in p
+    private void merge(Node left, Node right, Inner p, int sep)
+    {
+        if (left instanceof BPlusTreeMap.Leaf)
+        {
+            Leaf l = (Leaf) left, r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.values, 0, l.values, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+            if (r.next != null) r.next.prev = l;
+        }
+        else
+        {
+            Inner l = (Inner) left, r = (Inner) right;
+            l.keys[l.n] = p.keys[sep]; // separator comes down between the two halves
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+        // drop the separator and the right child from the parent
+        System.arraycopy(p.keys, sep + 1, p.keys, sep, p.n - sep - 1);
+        System.arraycopy(p.children, sep + 2, p.children, sep + 1, p.n - sep - 1);
+        p.n--;
+        p.keys[p.n] = null;
+        p.children[p.n + 1] = null;
+    }
+
+    private static void clear(Object[] a, int from, int to)
+    {
+        for (int i = from; i < to; i++) a[i] = null;
+    }
+
+    /* ---------------- Sequential scans ---------------- */
+
+    // Ascending iteration along the leaf chain
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator()
+    {
+        return new LeafIterator(firstLeaf, 0, null);
+    }
+
+    // Entries with fromKey <= key < toKey
+    public Iterable<Map.Entry<K, V>> range(K fromKey, K toKey)
+    {
+        if (fromKey == null || toKey == null) throw new IllegalArgumentException("Bounds cannot be null");
+        return () ->
+        {
+            if (root == null) return new LeafIterator(null, 0, toKey);
+            Leaf leaf = findLeaf(fromKey);
+            int i = search(leaf, fromKey);
+            return new LeafIterator(leaf, (i >= 0) ? i : -(i + 1), toKey);
+        };
+    }
+
+    private class LeafIterator implements Iterator<Map.Entry<K, V>>
+    {
+        private Leaf leaf;
+        private int i;
+        private final K hi;
+
+        LeafIterator(Leaf leaf, int i, K hi)
+        {
+            this.leaf = leaf;
+            this.i = i;
+            this.hi = hi;
+            advance();
+        }
+
+        // skip past exhausted leaves; stop at the upper bound
+        private void advance()
+        {
+            while (leaf != null && i >= leaf.n)
+            {
+                leaf = leaf.next;
+                i = 0;
+            }
+            if (leaf != null && hi != null && compare(leaf.key(i), hi) >= 0) leaf = null;
+        }
+
+        @Override
+        public boolean hasNext() { return leaf != null; }
+
+        @Override
+        public Map.Entry<K, V> next()
+        {
+            if (leaf == null) throw new NoSuchElementException();
+            Map.Entry<K, V> e = new AbstractMap.SimpleImmutableEntry<>(leaf.key(i), leaf.value(i));
+            i++;
+            advance();
+            return e;
+        }
+    }
+
+    /* ---------------- Helper utilities ---------------- */
+
+    /** Print tree sideways, one node per line with its keys */
+    public void printTree()
+    {
+        System.out.println("B+Tree (sideways, fan-out " + (maxKeys + 1) + "):");
+        if (root == null) System.out.println("  (empty)");
+        else printSubtree(root, "");
+        System.out.println("---- end ----");
+    }
+
+    private void printSubtree(Node node, String prefix)
+    {
+        StringBuilder sb = new StringBuilder(prefix).append(node instanceof BPlusTreeMap.Leaf ? "leaf [" : "[");
+        for (int i = 0; i < node.n; i++)
+        {
+            if (i > 0) sb.append(' ');
+            sb.append(node.keys[i]);
+            if (node instanceof BPlusTreeMap.Leaf) sb.append(':').append(((Leaf) node).values[i]);
+        }
+        if (node instanceof BPlusTreeMap.Inner)
+        {
+            Inner in = (Inner) node;
+            for (int c = in.n; c > in.n / 2; c--) printSubtree(in.children[c], prefix + "    ");
+            System.out.println(sb.append(']'));
+            for (int c = in.n / 2; c >= 0; c--) printSubtree(in.children[c], prefix + "    ");
+        }
+        else System.out.println(sb.append(']'));
+    }
+
+    public int size() { return size; }
+
+    public static void main(String[] args)
+    {
+        // small fan-out so splits and merges show up in a short demo
+        BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(4);
+
+        int[] inserts = {10, 20, 30, 15, 25, 5, 1, 6, 18, 28, 35, 40};
+        System.out.println("Inserting:");
+        for (int k : inserts) map.put(k, "v" + k);
+        map.printTree();
+
+        System.out.println("\nRemovals:");
+        int[] removes = {20, 10, 5, 30, 1, 6};
+        for (int k : removes)
+        {
+            System.out.println("\nremove(" + k + ")");
+            map.remove(k);
+            map.printTree();
+        }
+
+        System.out.print("\nrange(15, 30): ");
+        for (Map.Entry<Integer, String> e : map.range(15, 30)) System.out.print(e.getKey() + " ");
+        System.out.println("\nget(25) = " + map.get(25) + ", containsKey(20) = " + map.containsKey(20));
+        System.out.println("Final size: " + map.size());
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Comparator;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentAVLTreeMap<K,V>
+ *
+ * Thread-safe AVLTreeMap for read-heavy workloads.
+ * - get/containsKey/size run as optimistic reads: the traversal takes no lock and
+ *   is validated against the StampedLock stamp afterwards
+ * - put/remove take the write lock; a reader retries (under the read lock) only
+ *   if a write actually overlapped its traversal
+ *
+ * An optimistic reader may race a rotation in rebalance and briefly see a cycle
+ * or a half-updated node, so the traversal is bounded (an AVL tree of 2^31 nodes
+ * is under 45 levels high) and any exception is treated as a torn read unless the
+ * stamp still validates.
+ */
+
+public class ConcurrentAVLTreeMap<K, V>
+{
+    // More links than any valid AVL search path can have
+    private static final int MAX_STEPS = 64;
+
+    private final AVLTreeMap<K, V> map;
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentAVLTreeMap()
+    {
+        map = new AVLTreeMap<>();
+    }
+
+    public ConcurrentAVLTreeMap(Comparator<? super K> comparator)
+    {
+        map = new AVLTreeMap<>(comparator);
+    }
+
+    // Optimistic lookup: returns the value, AVLTreeMap.NOT_FOUND, or falls back to the read lock
+    private Object lookup(K key)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0)
+        {
+            Object result;
+            try
+            {
+                result = map.lookupBounded(key, MAX_STEPS);
+            }
+            catch (RuntimeException e)
+            {
+                // genuine failure (e.g. bad key type) if nothing was written meanwhile
+                if (lock.validate(stamp)) throw e;
+                result = null;
+            }
+            if (lock.validate(stamp)) return result;
+        }
+        // a writer overlapped: retry under the read lock
+        stamp = lock.readLock();
+        try
+        {
+            return map.lookupBounded(key, Integer.MAX_VALUE);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key)
+    {
+        Object r = lookup(key);
+        return (r == AVLTreeMap.NOT_FOUND) ? null : (V) r;
+    }
+
+    public boolean containsKey(K key)
+    {
+        return lookup(key) != AVLTreeMap.NOT_FOUND;
+    }
+
+    public int size()
+    {
+        long stamp = lock.tryOptimisticRead();
+        int n = map.size();
+        if (lock.validate(stamp)) return n;
+        stamp = lock.readLock();
+        try
+        {
+            return map.size();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public V put(K key, V value)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return map.put(key, value);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V remove(K key)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return map.remove(key);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void printTree()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            map.printTree();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Main - a few threads writing disjoint keys while others read
+    public static void main(String[] args) throws InterruptedException
+    {
+        ConcurrentAVLTreeMap<Integer, String> map = new ConcurrentAVLTreeMap<>();
+        int writers = 4, perWriter = 10_000;
+        Thread[] threads = new Thread[writers * 2];
+        for (int w = 0; w < writers; w++)
+        {
+            final int base = w * perWriter;
+            threads[w] = new Thread(() ->
+            {
+                for (int i = 0; i < perWriter; i++) map.put(base + i, "v" + (base + i));
+            });
+            threads[writers + w] = new Thread(() ->
+            {
+                for (int i = 0; i < perWriter; i++) map.get(base + i);
+            });
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        System.out.println("size after concurrent puts: " + map.size() + " (expected " + writers * perWriter + ")");
+        System.out.println("get(12345) = " + map.get(12345));
+    }
+}
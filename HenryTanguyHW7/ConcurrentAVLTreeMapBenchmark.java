@@ -0,0 +1,101 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentAVLTreeMapBenchmark
+ *
+ * Throughput of a 95% get / 5% write mix at 1, 2, 4, 8 and 16 threads:
+ * - synchronized: every call on a plain AVLTreeMap behind one monitor
+ * - stamped:      ConcurrentAVLTreeMap (optimistic reads, write lock for put/remove)
+ *
+ * Writes are split evenly between put and remove of random keys so the map
+ * stays near its prefilled size.
+ *
+ * Usage: java ConcurrentAVLTreeMapBenchmark [keys] [millisPerRun]   (default 1,000,000 / 2000)
+ */
+
+public class ConcurrentAVLTreeMapBenchmark
+{
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    // Minimal common surface of the two contenders
+    private interface Target
+    {
+        Object get(int key);
+        void put(int key);
+        void remove(int key);
+    }
+
+    private static Target synchronizedTarget(int keys)
+    {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        for (int i = 0; i < keys; i += 2) map.put(i, i);
+        return new Target()
+        {
+            public synchronized Object get(int key) { return map.get(key); }
+            public synchronized void put(int key) { map.put(key, key); }
+            public synchronized void remove(int key) { map.remove(key); }
+        };
+    }
+
+    private static Target stampedTarget(int keys)
+    {
+        ConcurrentAVLTreeMap<Integer, Integer> map = new ConcurrentAVLTreeMap<>();
+        for (int i = 0; i < keys; i += 2) map.put(i, i);
+        return new Target()
+        {
+            public Object get(int key) { return map.get(key); }
+            public void put(int key) { map.put(key, key); }
+            public void remove(int key) { map.remove(key); }
+        };
+    }
+
+    private static double run(Target target, int threads, int keys, long millis) throws InterruptedException
+    {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++)
+        {
+            workers[t] = new Thread(() ->
+            {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long done = 0;
+                while (true)
+                {
+                    // check the clock every 1024 operations
+                    for (int i = 0; i < 1024; i++)
+                    {
+                        int key = rnd.nextInt(keys);
+                        int dice = rnd.nextInt(100);
+                        if (dice < 95) target.get(key);
+                        else if ((dice & 1) == 0) target.put(key);
+                        else target.remove(key);
+                    }
+                    done += 1024;
+                    if (System.nanoTime() >= deadline) break;
+                }
+                ops.add(done);
+            });
+        }
+        for (Thread w : workers) w.start();
+        for (Thread w : workers) w.join();
+        return ops.sum() / (millis / 1000.0);
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        int keys = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        long millis = (args.length > 1) ? Long.parseLong(args[1]) : 2000;
+
+        System.out.println("keys: " + keys + ", 95% get / 5% put+remove, " + millis + " ms per run");
+        System.out.println("cores available: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %18s %18s %8s%n", "threads", "synchronized op/s", "stamped op/s", "speedup");
+        for (int threads : THREAD_COUNTS)
+        {
+            double sync = run(synchronizedTarget(keys), threads, keys, millis);
+            double stamped = run(stampedTarget(keys), threads, keys, millis);
+            System.out.printf("%8d %18.0f %18.0f %7.2fx%n", threads, sync, stamped, stamped / sync);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * DurableRBTreeMap<K,V>
+ *
+ * RBTreeMap index that survives crashes, kept in a directory of two files:
+ *   checkpoint.snap  full sorted copy of the map (MappedAVLSnapshot format)
+ *   wal.log          every put/remove since that checkpoint
+ *
+ * - put/remove append a record to the write-ahead log before touching the tree
+ * - records are group-committed: they collect in a buffer and one fsync covers
+ *   the whole batch once syncBatch operations are pending (or on sync()/close()),
+ *   so a crash loses at most the last unsynced batch
+ * - after checkpointEvery logged operations the map is written to a new
+ *   checkpoint (temp file + atomic rename) and the log is truncated
+ * - open() loads the checkpoint and replays the log on top of it; a torn or
+ *   corrupt tail (short record or CRC mismatch) ends the replay and is cut off
+ *
+ * Log record: int payloadLength, int crc32(payload),
+ *             payload = byte op, int keyLength, key, int valueLength (-1 = null), value
+ *
+ * Replaying a log over a checkpoint that already contains it is harmless: put and
+ * remove overwrite, so the last record for each key wins either way. That covers a
+ * crash between the checkpoint rename and the log truncation.
+ *
+ * All public methods are synchronized.
+ */
+
+public class DurableRBTreeMap<K, V> implements Iterable<Map.Entry<K, V>>, Closeable
+{
+    private static final String CHECKPOINT = "checkpoint.snap";
+    private static final String LOG = "wal.log";
+    private static final byte PUT = 1, REMOVE = 2;
+    private static final int RECORD_HEADER = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public static final int DEFAULT_SYNC_BATCH = 64;
+    public static final long DEFAULT_CHECKPOINT_EVERY = 1 << 20;
+
+    private final RBTreeMap<K, V> map;
+    private final Path dir;
+    private final SnapshotSerializer<K> keys;
+    private final SnapshotSerializer<V> values;
+    private final Comparator<? super K> comp;
+    private final int syncBatch;
+    private final long checkpointEvery;
+
+    private FileChannel log;
+    private ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE); // records not yet written to the log
+    private final CRC32 crc = new CRC32();
+    private int pending;        // operations since the last fsync
+    private long logged;        // records in the log since the last checkpoint
+    private long syncs;         // fsyncs issued, for the benchmark
+
+    private DurableRBTreeMap(Path dir, SnapshotSerializer<K> keys, SnapshotSerializer<V> values,
+                             Comparator<? super K> comp, int syncBatch, long checkpointEvery)
+    {
+        if (syncBatch < 1) throw new IllegalArgumentException("syncBatch must be >= 1");
+        if (checkpointEvery < 1) throw new IllegalArgumentException("checkpointEvery must be >= 1");
+        this.map = new RBTreeMap<>(comp);
+        this.dir = dir;
+        this.keys = keys;
+        this.values = values;
+        this.comp = comp;
+        this.syncBatch = syncBatch;
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    /* ---------------- Opening and recovery ---------------- */
+
+    // Open (or create) a store whose keys use natural ordering
+    public static <K extends Comparable<? super K>, V> DurableRBTreeMap<K, V> open(
+            Path dir, SnapshotSerializer<K> keySerializer, SnapshotSerializer<V> valueSerializer) throws IOException
+    {
+        return open(dir, keySerializer, valueSerializer, null, DEFAULT_SYNC_BATCH, DEFAULT_CHECKPOINT_EVERY);
+    }
+
+    // Open (or create) a store; the comparator must match the one it was written with
+    public static <K, V> DurableRBTreeMap<K, V> open(Path dir, SnapshotSerializer<K> keySerializer,
+            SnapshotSerializer<V> valueSerializer, Comparator<? super K> comparator,
+            int syncBatch, long checkpointEvery) throws IOException
+    {
+        Files.createDirectories(dir);
+        DurableRBTreeMap<K, V> m = new DurableRBTreeMap<>(dir, keySerializer, valueSerializer, comparator,
+                syncBatch, checkpointEvery);
+        m.recover();
+        return m;
+    }
+
+    private void recover() throws IOException
+    {
+        Files.deleteIfExists(dir.resolve(CHECKPOINT + ".tmp")); // unfinished checkpoint
+
+        Path checkpoint = dir.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint))
+        {
+            for (Map.Entry<K, V> e : MappedAVLSnapshot.open(checkpoint, keys, values, comp))
+                map.put(e.getKey(), e.getValue());
+        }
+
+        log = FileChannel.open(dir.resolve(LOG), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long validEnd = replay();
+        if (validEnd < log.size())
+        {
+            log.truncate(validEnd); // drop the torn tail so new records follow valid ones
+            log.force(true);
+        }
+        log.position(validEnd);
+    }
+
+    // Apply every intact record in the log; returns the offset just past the last one
+    private long replay() throws IOException
+    {
+        long validEnd = 0;
+        long fileSize = log.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(log.position(0)), BUFFER_SIZE));
+        byte[] payload = new byte[256];
+        while (true)
+        {
+            int length, checksum;
+            try
+            {
+                length = in.readInt();
+                checksum = in.readInt();
+                if (length < 9 || length > fileSize - validEnd - RECORD_HEADER) break; // garbage or torn
+                if (payload.length < length) payload = new byte[Math.max(length, 2 * payload.length)];
+                in.readFully(payload, 0, length);
+            }
+            catch (EOFException e)
+            {
+                break;
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) break;
+
+            ByteBuffer rec = ByteBuffer.wrap(payload, 0, length);
+            byte op = rec.get(0);
+            int keyLength = rec.getInt(1);
+            K key = keys.read(rec, 5, keyLength);
+            if (op == PUT)
+            {
+                int valueLength = rec.getInt(5 + keyLength);
+                map.put(key, (valueLength < 0) ? null : values.read(rec, 9 + keyLength, valueLength));
+            }
+            else if (op == REMOVE) map.remove(key);
+            else break;
+
+            validEnd += RECORD_HEADER + length;
+            logged++;
+        }
+        return validEnd;
+    }
+
+    /* ---------------- Logging ---------------- */
+
+    private void append(byte op, K key, V value) throws IOException
+    {
+        byte[] k = keys.toBytes(key);
+        byte[] v = (op == PUT && value != null) ? values.toBytes(value) : null;
+        int length = 1 + 4 + k.length + 4 + (v == null ? 0 : v.length);
+
+        if (buf.remaining() < RECORD_HEADER + length)
+        {
+            writeBuffer();
+            if (buf.capacity() < RECORD_HEADER + length) buf = ByteBuffer.allocate(RECORD_HEADER + length);
+        }
+        int start = buf.position();
+        buf.putInt(length).putInt(0).put(op).putInt(k.length).put(k);
+        if (v == null) buf.putInt(-1);
+        else buf.putInt(v.length).put(v);
+        crc.reset();
+        crc.update(buf.array(), start + RECORD_HEADER, length);
+        buf.putInt(start + 4, (int) crc.getValue());
+
+        logged++;
+        if (++pending >= syncBatch) syncLog();
+    }
+
+    // Hand buffered records to the OS (no fsync)
+    private void writeBuffer() throws IOException
+    {
+        buf.flip();
+        while (buf.hasRemaining()) log.write(buf);
+        buf.clear();
+    }
+
+    // Group commit: one fsync makes every pending record durable
+    private void syncLog() throws IOException
+    {
+        writeBuffer();
+        if (pending > 0)
+        {
+            log.force(false);
+            syncs++;
+            pending = 0;
+        }
+    }
+
+    private void afterWrite() throws IOException
+    {
+        if (logged >= checkpointEvery) checkpoint();
+    }
+
+    /* ---------------- Map operations ---------------- */
+
+    public synchronized V put(K key, V value)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        try
+        {
+            append(PUT, key, value);
+            V old = map.put(key, value);
+            afterWrite();
+            return old;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized V remove(K key)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (!map.containsKey(key)) return null; // nothing to log
+        try
+        {
+            append(REMOVE, key, null);
+            V old = map.remove(key);
+            afterWrite();
+            return old;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized V get(K key) { return map.get(key); }
+
+    public synchronized boolean containsKey(K key) { return map.containsKey(key); }
+
+    public synchronized int size() { return map.size(); }
+
+    // Read-only ascending iterator; not synchronized, so do not write while iterating
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator()
+    {
+        Iterator<Map.Entry<K, V>> it = map.iterator();
+        return new Iterator<Map.Entry<K, V>>()
+        {
+            public boolean hasNext() { return it.hasNext(); }
+            public Map.Entry<K, V> next() { return it.next(); }
+        };
+    }
+
+    /* ---------------- Durability control ---------------- */
+
+    // Make every operation so far durable
+    public synchronized void sync() throws IOException
+    {
+        syncLog();
+    }
+
+    // Write the whole map to a new checkpoint and empty the log
+    public synchronized void checkpoint() throws IOException
+    {
+        syncLog();
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        MappedAVLSnapshot.write(tmp, map.iterator(), map.size(), keys, values); // fsyncs the file
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        // the checkpoint now holds everything in the log
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        logged = 0;
+    }
+
+    // Persist the rename itself; not every platform can open a directory, and there it is best effort
+    private void syncDirectory()
+    {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ))
+        {
+            d.force(true);
+        }
+        catch (IOException e)
+        {
+            // e.g. Windows
+        }
+    }
+
+    // Number of fsyncs issued on the log since opening
+    public synchronized long syncCount() { return syncs; }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (log == null) return;
+        syncLog();
+        log.close();
+        log = null;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Path dir = Files.createTempDirectory("durable-rbtree");
+        try (DurableRBTreeMap<Integer, String> store = open(dir, SnapshotSerializer.INTEGER, SnapshotSerializer.STRING,
+                null, 4, 8))
+        {
+            for (int i = 1; i <= 10; i++) store.put(i, "v" + i);
+            store.remove(3);
+            store.put(4, "four");
+            System.out.println("size before close: " + store.size() + ", fsyncs: " + store.syncCount());
+        }
+
+        // reopen: checkpoint (after 8 ops) + replay of the 4 logged since
+        try (DurableRBTreeMap<Integer, String> store = open(dir, SnapshotSerializer.INTEGER, SnapshotSerializer.STRING))
+        {
+            System.out.print("recovered:");
+            for (Map.Entry<Integer, String> e : store) System.out.print(" " + e.getKey() + "=" + e.getValue());
+            System.out.println();
+        }
+    }
+}
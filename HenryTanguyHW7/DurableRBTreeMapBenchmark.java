@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * DurableRBTreeMapBenchmark
+ *
+ * Cost of durability per put at fsync batch sizes 1, 2, 4, ... 1024.
+ * Each run writes the same random keys into a fresh store and reports ns per
+ * operation, throughput, and the fsyncs issued. An in-memory RBTreeMap run gives
+ * the baseline, so the difference is the logging + fsync cost.
+ *
+ * Run it on the disk you care about: results on tmpfs or a laptop SSD with a
+ * volatile write cache say little about a server disk.
+ *
+ * Usage: java DurableRBTreeMapBenchmark [operations] [directory]   (default 20000, system temp dir)
+ */
+
+public class DurableRBTreeMapBenchmark
+{
+    public static void main(String[] args) throws IOException
+    {
+        int ops = (args.length > 0) ? Integer.parseInt(args[0]) : 20_000;
+        Path base = (args.length > 1) ? Path.of(args[1]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        Random rnd = new Random(1);
+        Integer[] keys = new Integer[ops];
+        for (int i = 0; i < ops; i++) keys[i] = rnd.nextInt();
+
+        // second pass is the baseline, after the first has warmed up the JIT
+        double baseline = 0;
+        for (int pass = 0; pass < 2; pass++)
+        {
+            long t0 = System.nanoTime();
+            RBTreeMap<Integer, Integer> plain = new RBTreeMap<>();
+            for (Integer k : keys) plain.put(k, k);
+            baseline = (System.nanoTime() - t0) / (double) ops;
+        }
+
+        System.out.println("operations: " + ops + ", directory: " + base);
+        System.out.printf("%-10s %12s %14s %10s %16s%n", "batch", "ns/op", "ops/s", "fsyncs", "overhead ns/op");
+        System.out.printf("%-10s %12.0f %14.0f %10s %16s%n", "in-memory", baseline, 1e9 / baseline, "-", "-");
+
+        for (int batch = 1; batch <= 1024; batch *= 2)
+        {
+            Path dir = Files.createTempDirectory(base, "durable-bench");
+            try
+            {
+                long syncs;
+                long start = System.nanoTime();
+                // checkpoints off: this measures the log alone
+                try (DurableRBTreeMap<Integer, Integer> store = DurableRBTreeMap.open(dir, SnapshotSerializer.INTEGER,
+                        SnapshotSerializer.INTEGER, Comparator.naturalOrder(), batch, Long.MAX_VALUE))
+                {
+                    for (Integer k : keys) store.put(k, k);
+                    store.sync();
+                    syncs = store.syncCount();
+                }
+                double perOp = (System.nanoTime() - start) / (double) ops;
+                System.out.printf("%-10d %12.0f %14.0f %10d %16.0f%n", batch, perOp, 1e9 / perOp, syncs,
+                        Math.max(0, perOp - baseline));
+            }
+            finally
+            {
+                deleteTree(dir);
+            }
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir))
+        {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Random;
+
+/**
+ * FingerSearchBenchmark
+ *
+ * RBTreeMap lookups with the finger off and on, for three key sequences over a
+ * map of n keys:
+ *   sorted         0, 1, 2, ...
+ *   nearly sorted  sorted, then each key swapped with one at most 32 positions away
+ *   random         a shuffle
+ * Each sequence is timed (ns/get) and then replayed with TreeStats on to report
+ * key comparisons per get, which do not depend on the JIT or the machine.
+ *
+ * Usage: java FingerSearchBenchmark [n]   (default 1000000)
+ */
+
+public class FingerSearchBenchmark
+{
+    private static final int NEAR = 32;
+
+    private static Integer[] sequence(String kind, int n, Random rnd)
+    {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = i;
+        for (int i = 0; i < n; i++)
+        {
+            int j;
+            if (kind.equals("random")) j = i + rnd.nextInt(n - i);
+            else if (kind.equals("nearly sorted")) j = Math.min(n - 1, i + rnd.nextInt(NEAR + 1));
+            else break;
+            Integer t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        return keys;
+    }
+
+    private static long lookups(RBTreeMap<Integer, Integer> map, Integer[] keys)
+    {
+        long sum = 0;
+        for (Integer k : keys) sum += map.get(k);
+        return sum;
+    }
+
+    public static void main(String[] args)
+    {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1_000_000;
+        Random rnd = new Random(7);
+
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        Integer[] shuffled = sequence("random", n, rnd);
+        for (Integer k : shuffled) map.put(k, k);
+
+        System.out.println("keys: " + n);
+        System.out.printf("%-15s %-7s %10s %12s%n", "sequence", "finger", "ns/get", "cmp/get");
+        for (String kind : new String[] {"sorted", "nearly sorted", "random"})
+        {
+            Integer[] keys = sequence(kind, n, rnd);
+            for (boolean finger : new boolean[] {false, true})
+            {
+                map.setFingerEnabled(finger);
+                lookups(map, keys); // warm-up
+
+                long t0 = System.nanoTime();
+                long check = lookups(map, keys);
+                double ns = (System.nanoTime() - t0) / (double) n;
+
+                TreeStats stats = map.enableStats();
+                lookups(map, keys);
+                double cmps = stats.comparisons() / (double) n;
+                map.disableStats();
+
+                if (check != (long) n * (n - 1) / 2) throw new IllegalStateException("lookups returned wrong values");
+                System.out.printf("%-15s %-7s %10.1f %12.2f%n", kind, finger ? "on" : "off", ns, cmps);
+            }
+        }
+    }
+}
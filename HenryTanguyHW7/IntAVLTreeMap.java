@@ -0,0 +1,360 @@
+import java.util.Arrays;
+
+/**
+ * IntAVLTreeMap<V>
+ *
+ * AVL map specialized for primitive int keys.
+ * - Same put/get/remove/containsKey surface and the same rotation/rebalance logic as AVLTreeMap
+ * - No Node objects and no boxed keys: each entry is a slot index into parallel arrays
+ *   (keys, heights, left/right/parent links, values)
+ * - Removed slots go on a free list (chained through left[]) and are reused by later puts
+ *
+ * NIL (-1) plays the role of null for links.
+ * See AVLMemoryComparison for bytes-per-entry against the generic AVLTreeMap.
+ */
+
+public class IntAVLTreeMap<V>
+{
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Parallel slot arrays
+    private int[] keys;
+    private int[] heights;
+    private int[] left, right, parent;
+    private Object[] values;
+
+    private int root = NIL;
+    private int size;
+    private int used;          // slots handed out so far (high-water mark)
+    private int freeHead = NIL; // first free slot, next free in left[]
+
+    public IntAVLTreeMap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntAVLTreeMap(int initialCapacity)
+    {
+        int cap = Math.max(1, initialCapacity);
+        keys = new int[cap];
+        heights = new int[cap];
+        left = new int[cap];
+        right = new int[cap];
+        parent = new int[cap];
+        values = new Object[cap];
+    }
+
+    /* ---------------- Slot management ---------------- */
+
+    private int allocSlot(int key, V value, int p)
+    {
+        int s;
+        if (freeHead != NIL)
+        {
+            s = freeHead;
+            freeHead = left[s];
+        }
+        else
+        {
+            if (used == keys.length) grow();
+            s = used++;
+        }
+        keys[s] = key;
+        values[s] = value;
+        heights[s] = 1; // single node height = 1
+        left[s] = right[s] = NIL;
+        parent[s] = p;
+        return s;
+    }
+
+    private void freeSlot(int s)
+    {
+        values[s] = null; // let the value be collected
+        heights[s] = 0;
+        right[s] = parent[s] = NIL;
+        left[s] = freeHead;
+        freeHead = s;
+    }
+
+    private void grow()
+    {
+        int cap = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, cap);
+        heights = Arrays.copyOf(heights, cap);
+        left = Arrays.copyOf(left, cap);
+        right = Arrays.copyOf(right, cap);
+        parent = Arrays.copyOf(parent, cap);
+        values = Arrays.copyOf(values, cap);
+    }
+
+    // Height helpers
+    private int heightFunc(int n)
+    {
+        return (n == NIL) ? 0 : heights[n];
+    }
+
+    private void updateHeight(int n)
+    {
+        if (n != NIL) heights[n] = 1 + Math.max(heightFunc(left[n]), heightFunc(right[n]));
+    }
+
+    private int balanceFactor(int n)
+    {
+        if (n == NIL) return 0;
+        return heightFunc(left[n]) - heightFunc(right[n]);
+    }
+
+    private boolean isBalanced(int n)
+    {
+        int bf = balanceFactor(n);
+        return (bf >= -1 && bf <= 1);
+    }
+
+    // find taller child used for identifying rotation cases
+    private int tallerChild(int n)
+    {
+        if (n == NIL) return NIL;
+        int lh = heightFunc(left[n]);
+        int rh = heightFunc(right[n]);
+        if (lh > rh) return left[n];
+        if (rh > lh) return right[n];
+        // tie-breaker: prefer child on same side as parent to produce deterministic behavior
+        if (parent[n] != NIL && n == left[parent[n]]) return left[n];
+        return right[n];
+    }
+
+    // rotateRight: rotate around y where x = y.left
+    private int rotateRight(int y)
+    {
+        int x = left[y];
+        int b = right[x];
+
+        parent[x] = parent[y];
+        if (parent[y] == NIL) root = x;
+        else if (y == left[parent[y]]) left[parent[y]] = x;
+        else right[parent[y]] = x;
+
+        right[x] = y;
+        parent[y] = x;
+
+        left[y] = b;
+        if (b != NIL) parent[b] = y;
+
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    // rotateLeft: rotate around x where y = x.right
+    private int rotateLeft(int x)
+    {
+        int y = right[x];
+        int b = left[y];
+
+        parent[y] = parent[x];
+        if (parent[x] == NIL) root = y;
+        else if (x == left[parent[x]]) left[parent[x]] = y;
+        else right[parent[x]] = y;
+
+        left[y] = x;
+        parent[x] = y;
+
+        right[x] = b;
+        if (b != NIL) parent[b] = x;
+
+        updateHeight(x);
+        updateHeight(y);
+        return y;
+    }
+
+    // Rebalance walking up from node (after insertion/removal)
+    private void rebalance(int start)
+    {
+        int n = start;
+        while (n != NIL)
+        {
+            updateHeight(n);
+            if (!isBalanced(n))
+            {
+                int a = n;
+                int b = tallerChild(a);
+                int c = tallerChild(b);
+
+                if (b == left[a] && c == left[b]) rotateRight(a);          // Left Left
+                else if (b == left[a] && c == right[b])                      // Left Right
+                {
+                    rotateLeft(b);
+                    rotateRight(a);
+                }
+                else if (b == right[a] && c == right[b]) rotateLeft(a);    // Right Right
+                else if (b == right[a] && c == left[b])                      // Right Left
+                {
+                    rotateRight(b);
+                    rotateLeft(a);
+                }
+            }
+            n = parent[n];
+        }
+    }
+
+    /* ---------------- Map operations ---------------- */
+
+    // put operation (insert or replace)
+    public V put(int key, V value)
+    {
+        if (root == NIL)
+        {
+            root = allocSlot(key, value, NIL);
+            size = 1;
+            return null;
+        }
+        int cur = root, p = NIL;
+        while (cur != NIL)
+        {
+            p = cur;
+            if (key == keys[cur])
+            {
+                V old = valueAt(cur);
+                values[cur] = value;
+                return old; // replaced
+            }
+            cur = (key < keys[cur]) ? left[cur] : right[cur];
+        }
+        int s = allocSlot(key, value, p);
+        if (key < keys[p]) left[p] = s;
+        else right[p] = s;
+        size++;
+        rebalance(p);
+        return null;
+    }
+
+    public V get(int key)
+    {
+        int n = getSlot(key);
+        return (n == NIL) ? null : valueAt(n);
+    }
+
+    public boolean containsKey(int key)
+    {
+        return getSlot(key) != NIL;
+    }
+
+    private int getSlot(int key)
+    {
+        int cur = root;
+        while (cur != NIL)
+        {
+            int k = keys[cur];
+            if (key == k) return cur;
+            cur = (key < k) ? left[cur] : right[cur];
+        }
+        return NIL;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int s)
+    {
+        return (V) values[s];
+    }
+
+    // remove operation
+    public V remove(int key)
+    {
+        int node = getSlot(key);
+        if (node == NIL) return null;
+
+        V oldValue = valueAt(node);
+        deleteSlot(node);
+        size--;
+        return oldValue;
+    }
+
+    private void deleteSlot(int node)
+    {
+        if (left[node] != NIL && right[node] != NIL)
+        {
+            // find successor (min in right subtree), copy it here, then delete it
+            int succ = right[node];
+            while (left[succ] != NIL) succ = left[succ];
+            keys[node] = keys[succ];
+            values[node] = values[succ];
+            node = succ;
+        }
+
+        // node has at most one child
+        int replacement = (left[node] != NIL) ? left[node] : right[node];
+        int p = parent[node];
+        if (replacement != NIL) parent[replacement] = p;
+        if (p == NIL) root = replacement;
+        else if (node == left[p]) left[p] = replacement;
+        else right[p] = replacement;
+
+        freeSlot(node);
+        if (p != NIL) rebalance(p);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    // Utility: print tree sideways for inspection
+    public void printTree()
+    {
+        System.out.println("Tree (sideways, root at left):");
+        if (root == NIL) System.out.println("  (empty)");
+        else printSubtree(root, "", true);
+        System.out.println("---- End tree ----");
+    }
+
+    private void printSubtree(int n, String prefix, boolean isRoot)
+    {
+        if (right[n] != NIL) printSubtree(right[n], prefix + (isRoot ? "" : "│   "), false);
+        System.out.println(prefix + (isRoot ? "" : "└── ") + String.format("(%d:%s)[h=%d]", keys[n], values[n], heights[n]));
+        if (left[n] != NIL) printSubtree(left[n], prefix + (isRoot ? "" : "    "), false);
+    }
+
+    // For debugging/verification: in-order traversal prints sorted keys
+    public void printInOrder()
+    {
+        System.out.print("In-order: ");
+        inOrder(root);
+        System.out.println();
+    }
+
+    private void inOrder(int n)
+    {
+        if (n == NIL) return;
+        inOrder(left[n]);
+        System.out.print(keys[n] + " ");
+        inOrder(right[n]);
+    }
+
+    // Main - same demonstration sequence as AVLTreeMap
+    public static void main(String[] args)
+    {
+        IntAVLTreeMap<String> map = new IntAVLTreeMap<>();
+
+        int[] inserts = {30, 20, 40, 10, 25, 35, 50, 5, 15, 27, 26, 28};
+        System.out.println("Inserting keys:");
+        for (int k : inserts) map.put(k, "v" + k);
+        map.printTree();
+        map.printInOrder();
+
+        int[] deletes = {10, 30, 20, 27};
+        System.out.println("\nDeleting keys:");
+        for (int k : deletes)
+        {
+            System.out.println("\nRemove " + k);
+            map.remove(k);
+            map.printTree();
+        }
+
+        // freed slots are reused
+        map.put(99, "v99");
+        map.printInOrder();
+        System.out.println("get(99) = " + map.get(99) + ", containsKey(30) = " + map.containsKey(30));
+        System.out.println("\nFinal map size: " + map.size());
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IntervalRBTree<V>
+ *
+ * Interval tree on top of RBTreeMap (CLRS 14.3).
+ * -----------------------------------------------------
+ * • Keys are closed intervals [low, high] ordered by low, then high.
+ * • Each node's summary (Node.agg) is the interval with the largest high
+ *   endpoint in its subtree; RBTreeMap's augmentation hooks keep it correct
+ *   through leftRotate/rightRotate, transplant and both fix-up routines.
+ * • overlapping(a, b) reports every interval meeting [a, b] in O(log n + k)
+ *   on typical data; stab(p) is the single-point case.
+ *
+ * Insert/delete reuse RBTreeMap's insertFixup/deleteFixup unchanged.
+ */
+
+public class IntervalRBTree<V> extends RBTreeMap<IntervalRBTree.Interval, V>
+{
+    /* ---------------- Interval key ---------------- */
+    public static final class Interval implements Comparable<Interval>
+    {
+        public final long low, high;
+
+        public Interval(long low, long high)
+        {
+            if (low > high) throw new IllegalArgumentException("low > high: [" + low + ", " + high + "]");
+            this.low = low;
+            this.high = high;
+        }
+
+        // closed intervals: touching endpoints overlap
+        public boolean overlaps(long a, long b)
+        {
+            return low <= b && a <= high;
+        }
+
+        @Override
+        public int compareTo(Interval o)
+        {
+            int c = Long.compare(low, o.low);
+            return (c != 0) ? c : Long.compare(high, o.high);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Interval)) return false;
+            Interval i = (Interval) o;
+            return low == i.low && high == i.high;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Long.hashCode(low) * 31 + Long.hashCode(high);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "[" + low + "," + high + "]";
+        }
+    }
+
+    /* ---------------- Constructor ---------------- */
+    public IntervalRBTree() { super(null, true); }
+
+    /* ---------------- Max-endpoint summary ---------------- */
+
+    // agg = interval with the largest high endpoint in n's subtree
+    @Override
+    void updateAgg(Node n)
+    {
+        Interval best = n.key;
+        if (n.left != NIL && ((Interval) n.left.agg).high > best.high) best = (Interval) n.left.agg;
+        if (n.right != NIL && ((Interval) n.right.agg).high > best.high) best = (Interval) n.right.agg;
+        n.agg = best;
+    }
+
+    private long maxHigh(Node n)
+    {
+        return (n == NIL) ? Long.MIN_VALUE : ((Interval) n.agg).high;
+    }
+
+    /* ---------------- Convenience updates ---------------- */
+
+    public V put(long low, long high, V value) { return put(new Interval(low, high), value); }
+
+    public V get(long low, long high) { return get(new Interval(low, high)); }
+
+    public V remove(long low, long high) { return remove(new Interval(low, high)); }
+
+    /* ---------------- Queries ---------------- */
+
+    // All intervals overlapping [a, b], in ascending order
+    public List<Map.Entry<Interval, V>> overlapping(long a, long b)
+    {
+        if (a > b) throw new IllegalArgumentException("a > b");
+        List<Map.Entry<Interval, V>> out = new ArrayList<>();
+        collect(root, a, b, out);
+        return out;
+    }
+
+    // All intervals containing point
+    public List<Map.Entry<Interval, V>> stab(long point)
+    {
+        return overlapping(point, point);
+    }
+
+    // true if any stored interval overlaps [a, b]; a single O(log n) descent
+    public boolean anyOverlap(long a, long b)
+    {
+        Node n = root;
+        while (n != NIL)
+        {
+            if (n.key.overlaps(a, b)) return true;
+            // if the left subtree reaches a, an overlap exists there or nowhere (CLRS 14.3)
+            n = (n.left != NIL && maxHigh(n.left) >= a) ? n.left : n.right;
+        }
+        return false;
+    }
+
+    // In-order walk that skips subtrees ending before a and stops once lows pass b
+    private void collect(Node n, long a, long b, List<Map.Entry<Interval, V>> out)
+    {
+        while (n != NIL && maxHigh(n) >= a)
+        {
+            collect(n.left, a, b, out);
+            if (n.key.low > b) return; // this node and everything right of it start after b
+            if (n.key.high >= a) out.add(new AbstractMap.SimpleImmutableEntry<>(n.key, n.value));
+            n = n.right;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        IntervalRBTree<String> tree = new IntervalRBTree<>();
+        long[][] ranges = {{16, 21}, {8, 9}, {25, 30}, {5, 8}, {15, 23}, {17, 19}, {26, 26}, {0, 3}, {6, 10}, {19, 20}};
+        for (long[] r : ranges) tree.put(r[0], r[1], "job" + r[0]);
+        tree.printTree();
+
+        System.out.println("overlapping(22, 25): " + tree.overlapping(22, 25));
+        System.out.println("stab(9): " + tree.stab(9));
+        System.out.println("anyOverlap(11, 14): " + tree.anyOverlap(11, 14));
+
+        tree.remove(15, 23);
+        System.out.println("after remove [15,23], overlapping(22, 25): " + tree.overlapping(22, 25));
+    }
+}
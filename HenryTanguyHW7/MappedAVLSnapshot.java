@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * MappedAVLSnapshot<K,V>
+ *
+ * Read-only map answered straight from a memory-mapped snapshot file written by
+ * AVLTreeMap.writeSnapshot. No Node objects are built: opening costs one mmap,
+ * and each lookup decodes only the O(log n) keys its binary search touches.
+ *
+ * File layout (big-endian):
+ *   header  32 bytes  magic "AVLSNAP1", int version, int chunk shift, long count, long index start
+ *   index   8 * count absolute offset of each record, in ascending key order
+ *   records           int keyLength, key bytes, int valueLength (-1 = null), value bytes
+ *
+ * The file is mapped in 1 GiB chunks (a single MappedByteBuffer is limited to 2 GiB);
+ * the writer pads so that no record straddles a chunk boundary.
+ */
+
+public class MappedAVLSnapshot<K, V> implements Iterable<Map.Entry<K, V>>
+{
+    private static final long MAGIC = 0x41564C534E415031L; // "AVLSNAP1"
+    private static final int VERSION = 1;
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final int HEADER_SIZE = 32;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final ByteBuffer[] chunks;
+    private final long count;
+    private final long indexStart;
+    private final SnapshotSerializer<K> keys;
+    private final SnapshotSerializer<V> values;
+    private final Comparator<? super K> comp;
+
+    private MappedAVLSnapshot(ByteBuffer[] chunks, long count, long indexStart, SnapshotSerializer<K> keys,
+                              SnapshotSerializer<V> values, Comparator<? super K> comp)
+    {
+        this.chunks = chunks;
+        this.count = count;
+        this.indexStart = indexStart;
+        this.keys = keys;
+        this.values = values;
+        this.comp = comp;
+    }
+
+    /* ---------------- Writing ---------------- */
+
+    // Stream count entries (ascending key order) into the snapshot format
+    static <K, V> void write(Path path, Iterator<Map.Entry<K, V>> entries, long count,
+                             SnapshotSerializer<? super K> keys, SnapshotSerializer<? super V> values) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(CHUNK_SHIFT).putLong(count).putLong(HEADER_SIZE).flip();
+            writeFully(ch, header, 0);
+
+            long indexPos = HEADER_SIZE;
+            long recordPos = HEADER_SIZE + 8 * count;
+            ByteBuffer index = ByteBuffer.allocate(WRITE_BUFFER);
+            ByteBuffer data = ByteBuffer.allocate(WRITE_BUFFER);
+            long dataStart = recordPos; // file position of data[0]
+            long written = 0;
+
+            while (entries.hasNext())
+            {
+                Map.Entry<K, V> e = entries.next();
+                byte[] k = keys.toBytes(e.getKey());
+                byte[] v = (e.getValue() == null) ? null : values.toBytes(e.getValue());
+                int recordSize = 8 + k.length + (v == null ? 0 : v.length);
+                if (recordSize > CHUNK_SIZE) throw new IOException("Record larger than one mapped chunk");
+
+                // pad to the next chunk if the record would straddle a boundary
+                long chunkEnd = ((recordPos >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+                if (recordPos + recordSize > chunkEnd)
+                {
+                    dataStart = flush(ch, data, dataStart);
+                    recordPos = dataStart = chunkEnd;
+                }
+                if (data.remaining() < recordSize)
+                {
+                    dataStart = flush(ch, data, dataStart);
+                    if (recordSize > data.capacity()) data = ByteBuffer.allocate(recordSize);
+                }
+                data.putInt(k.length).put(k);
+                if (v == null) data.putInt(-1);
+                else data.putInt(v.length).put(v);
+
+                if (!index.hasRemaining()) indexPos = flush(ch, index, indexPos);
+                index.putLong(recordPos);
+                recordPos += recordSize;
+                written++;
+            }
+            if (written != count) throw new IOException("Expected " + count + " entries but got " + written);
+            flush(ch, index, indexPos);
+            flush(ch, data, dataStart);
+            ch.force(true);
+        }
+    }
+
+    // write buf's contents at pos and clear it; returns the position after them
+    private static long flush(FileChannel ch, ByteBuffer buf, long pos) throws IOException
+    {
+        buf.flip();
+        long end = pos + buf.remaining();
+        writeFully(ch, buf, pos);
+        buf.clear();
+        return end;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException
+    {
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+    }
+
+    /* ---------------- Opening ---------------- */
+
+    static <K, V> MappedAVLSnapshot<K, V> open(Path path, SnapshotSerializer<K> keys, SnapshotSerializer<V> values,
+                                               Comparator<? super K> comp) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long fileSize = ch.size();
+            if (fileSize < HEADER_SIZE) throw new IOException("Not a snapshot file: " + path);
+            int n = (int) ((fileSize + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+            ByteBuffer[] chunks = new ByteBuffer[n];
+            for (int c = 0; c < n; c++)
+            {
+                long start = (long) c << CHUNK_SHIFT;
+                chunks[c] = ch.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, fileSize - start));
+            }
+            // the mapping stays valid after the channel is closed
+            ByteBuffer h = chunks[0];
+            if (h.getLong(0) != MAGIC) throw new IOException("Not a snapshot file: " + path);
+            if (h.getInt(8) != VERSION || h.getInt(12) != CHUNK_SHIFT) throw new IOException("Unsupported snapshot version");
+            long count = h.getLong(16);
+            long indexStart = h.getLong(24);
+            if (indexStart + 8 * count > fileSize) throw new IOException("Truncated snapshot file: " + path);
+            return new MappedAVLSnapshot<>(chunks, count, indexStart, keys, values, comp);
+        }
+    }
+
+    /* ---------------- Record access ---------------- */
+
+    private ByteBuffer chunkOf(long pos)
+    {
+        return chunks[(int) (pos >>> CHUNK_SHIFT)];
+    }
+
+    private long recordPos(long i)
+    {
+        long p = indexStart + 8 * i;
+        return chunkOf(p).getLong((int) (p & (CHUNK_SIZE - 1)));
+    }
+
+    private K keyAt(long i)
+    {
+        long pos = recordPos(i);
+        ByteBuffer c = chunkOf(pos);
+        int off = (int) (pos & (CHUNK_SIZE - 1));
+        return keys.read(c, off + 4, c.getInt(off));
+    }
+
+    private V valueAt(long i)
+    {
+        long pos = recordPos(i);
+        ByteBuffer c = chunkOf(pos);
+        int off = (int) (pos & (CHUNK_SIZE - 1));
+        off += 4 + c.getInt(off);
+        int len = c.getInt(off);
+        return (len < 0) ? null : values.read(c, off + 4, len);
+    }
+
+    // Compare helper (uses comparator if provided, otherwise natural ordering)
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b)
+    {
+        if (comp != null) return comp.compare(a, b);
+        return ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    // index of the first key >= key (count if none); the implicit balanced tree search
+    private long lowerBound(K key)
+    {
+        long lo = 0, hi = count;
+        while (lo < hi)
+        {
+            long mid = (lo + hi) >>> 1;
+            if (compare(keyAt(mid), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long indexOf(K key)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        long i = lowerBound(key);
+        return (i < count && compare(keyAt(i), key) == 0) ? i : -1;
+    }
+
+    /* ---------------- Queries ---------------- */
+
+    public V get(K key)
+    {
+        long i = indexOf(key);
+        return (i < 0) ? null : valueAt(i);
+    }
+
+    public boolean containsKey(K key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    public long size()
+    {
+        return count;
+    }
+
+    public K firstKey()
+    {
+        if (count == 0) throw new NoSuchElementException("Snapshot is empty");
+        return keyAt(0);
+    }
+
+    public K lastKey()
+    {
+        if (count == 0) throw new NoSuchElementException("Snapshot is empty");
+        return keyAt(count - 1);
+    }
+
+    // number of keys in [fromKey, toKey)
+    public long countInRange(K fromKey, K toKey)
+    {
+        return Math.max(0, lowerBound(toKey) - lowerBound(fromKey));
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator()
+    {
+        return new RangeIterator(0, count);
+    }
+
+    // Lazy view of keys in [fromKey, toKey): O(log n) to find the start, then sequential reads
+    public Iterable<Map.Entry<K, V>> subMap(K fromKey, K toKey)
+    {
+        if (fromKey == null || toKey == null) throw new IllegalArgumentException("Bounds cannot be null");
+        return () -> new RangeIterator(lowerBound(fromKey), lowerBound(toKey));
+    }
+
+    private class RangeIterator implements Iterator<Map.Entry<K, V>>
+    {
+        private long next;
+        private final long end;
+
+        RangeIterator(long from, long to)
+        {
+            next = from;
+            end = to;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next < end;
+        }
+
+        @Override
+        public Map.Entry<K, V> next()
+        {
+            if (next >= end) throw new NoSuchElementException();
+            long i = next++;
+            return new AbstractMap.SimpleImmutableEntry<>(keyAt(i), valueAt(i));
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * PersistentAVLTreeMap<K,V>
+ *
+ * Path-copying (persistent) variant of AVLTreeMap.
+ * - Nodes are immutable: put/remove copy only the root-to-leaf path they touch
+ *   (O(log n) new nodes) and share every other subtree with older versions
+ * - snapshot() returns a read-only view of the current version in O(1)
+ * - Readers never lock: the root is a volatile reference to an immutable tree,
+ *   so a snapshot keeps seeing exactly the version it captured
+ * - Writers are serialized among themselves; they never copy the whole tree
+ *
+ * Nodes carry no parent pointer (a shared subtree has many parents across versions),
+ * so iteration uses an explicit stack of at most height entries.
+ */
+
+public class PersistentAVLTreeMap<K, V> implements Iterable<Map.Entry<K, V>>
+{
+    private volatile Node<K, V> root;
+    private final Comparator<? super K> comp;
+    private final boolean readOnly;
+
+    // Immutable node; static so subtrees can be shared between map versions
+    private static final class Node<K, V>
+    {
+        final K key;
+        final V value;
+        final Node<K, V> left, right;
+        final int nodeHeight;
+        final int subtreeSize;
+
+        Node(Node<K, V> left, K key, V value, Node<K, V> right)
+        {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.nodeHeight = 1 + Math.max(heightFunc(left), heightFunc(right));
+            this.subtreeSize = 1 + sizeFunc(left) + sizeFunc(right);
+        }
+    }
+
+    // Holder for the value replaced or removed by a path-copying update
+    private static final class Removed<V>
+    {
+        V value;
+        boolean found;
+    }
+
+    // Constructor with natural ordering
+    public PersistentAVLTreeMap()
+    {
+        this(null, null, false);
+    }
+
+    //Constructor with user defined comparator
+    public PersistentAVLTreeMap(Comparator<? super K> comparator)
+    {
+        this(comparator, null, false);
+    }
+
+    private PersistentAVLTreeMap(Comparator<? super K> comparator, Node<K, V> root, boolean readOnly)
+    {
+        this.comp = comparator;
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    // Compare helper (uses comparator if provided, otherwise natural ordering)
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b)
+    {
+        if (comp != null) return comp.compare(a, b);
+        return ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    private static int heightFunc(Node<?, ?> n)
+    {
+        return (n == null) ? 0 : n.nodeHeight;
+    }
+
+    private static int sizeFunc(Node<?, ?> n)
+    {
+        return (n == null) ? 0 : n.subtreeSize;
+    }
+
+    /* ---------------- Functional rebalancing ---------------- */
+
+    // Build a node over l and r, rotating once or twice if their heights differ by 2
+    private static <K, V> Node<K, V> balance(Node<K, V> l, K key, V value, Node<K, V> r)
+    {
+        int hl = heightFunc(l), hr = heightFunc(r);
+        if (hl > hr + 1)
+        {
+            if (heightFunc(l.left) >= heightFunc(l.right))
+            {
+                // Left Left: single right rotation
+                return new Node<>(l.left, l.key, l.value, new Node<>(l.right, key, value, r));
+            }
+            // Left Right: double rotation
+            Node<K, V> lr = l.right;
+            return new Node<>(new Node<>(l.left, l.key, l.value, lr.left), lr.key, lr.value,
+                    new Node<>(lr.right, key, value, r));
+        }
+        if (hr > hl + 1)
+        {
+            if (heightFunc(r.right) >= heightFunc(r.left))
+            {
+                // Right Right: single left rotation
+                return new Node<>(new Node<>(l, key, value, r.left), r.key, r.value, r.right);
+            }
+            // Right Left: double rotation
+            Node<K, V> rl = r.left;
+            return new Node<>(new Node<>(l, key, value, rl.left), rl.key, rl.value,
+                    new Node<>(rl.right, r.key, r.value, r.right));
+        }
+        return new Node<>(l, key, value, r);
+    }
+
+    private Node<K, V> insert(Node<K, V> n, K key, V value, Removed<V> old)
+    {
+        if (n == null) return new Node<>(null, key, value, null);
+        int cmp = compare(key, n.key);
+        if (cmp == 0)
+        {
+            old.value = n.value;
+            old.found = true;
+            return new Node<>(n.left, key, value, n.right);
+        }
+        if (cmp < 0) return balance(insert(n.left, key, value, old), n.key, n.value, n.right);
+        return balance(n.left, n.key, n.value, insert(n.right, key, value, old));
+    }
+
+    private Node<K, V> delete(Node<K, V> n, K key, Removed<V> old)
+    {
+        if (n == null) return null;
+        int cmp = compare(key, n.key);
+        if (cmp < 0)
+        {
+            Node<K, V> l = delete(n.left, key, old);
+            return (l == n.left) ? n : balance(l, n.key, n.value, n.right); // key absent: share n
+        }
+        if (cmp > 0)
+        {
+            Node<K, V> r = delete(n.right, key, old);
+            return (r == n.right) ? n : balance(n.left, n.key, n.value, r);
+        }
+        old.value = n.value;
+        old.found = true;
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+        // replace with successor (min in right subtree)
+        Node<K, V> succ = n.right;
+        while (succ.left != null) succ = succ.left;
+        return balance(n.left, succ.key, succ.value, deleteMin(n.right));
+    }
+
+    private static <K, V> Node<K, V> deleteMin(Node<K, V> n)
+    {
+        if (n.left == null) return n.right;
+        return balance(deleteMin(n.left), n.key, n.value, n.right);
+    }
+
+    /* ---------------- Map operations ---------------- */
+
+    private void checkWritable()
+    {
+        if (readOnly) throw new UnsupportedOperationException("Snapshot is read-only");
+    }
+
+    // put operation (insert or replace); copies only the search path
+    public synchronized V put(K key, V value)
+    {
+        checkWritable();
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Removed<V> old = new Removed<>();
+        root = insert(root, key, value, old);
+        return old.value;
+    }
+
+    // remove operation; copies only the search path, and nothing if the key is absent
+    public synchronized V remove(K key)
+    {
+        checkWritable();
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Removed<V> old = new Removed<>();
+        Node<K, V> newRoot = delete(root, key, old);
+        if (old.found) root = newRoot;
+        return old.value;
+    }
+
+    public V get(K key)
+    {
+        Node<K, V> n = getNode(root, key);
+        return (n == null) ? null : n.value;
+    }
+
+    public boolean containsKey(K key)
+    {
+        return getNode(root, key) != null;
+    }
+
+    private Node<K, V> getNode(Node<K, V> cur, K key)
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        while (cur != null)
+        {
+            int cmp = compare(key, cur.key);
+            if (cmp == 0) return cur;
+            cur = (cmp < 0) ? cur.left : cur.right;
+        }
+        return null;
+    }
+
+    public int size()
+    {
+        return sizeFunc(root);
+    }
+
+    // Immutable view of the current version in O(1); later writes to this map are not visible in it
+    public PersistentAVLTreeMap<K, V> snapshot()
+    {
+        return new PersistentAVLTreeMap<>(comp, root, true);
+    }
+
+    public boolean isSnapshot()
+    {
+        return readOnly;
+    }
+
+    // Ascending iteration over the version current when iterator() was called
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator()
+    {
+        final Node<K, V> start = root;
+        return new Iterator<Map.Entry<K, V>>()
+        {
+            private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(start);
+            }
+
+            private void pushLeft(Node<K, V> n)
+            {
+                for (; n != null; n = n.left) stack.push(n);
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Map.Entry<K, V> next()
+            {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+                Node<K, V> n = stack.pop();
+                pushLeft(n.right);
+                return new AbstractMap.SimpleImmutableEntry<>(n.key, n.value);
+            }
+        };
+    }
+
+    // Utility: print tree sideways for inspection
+    public void printTree()
+    {
+        System.out.println("Tree (sideways, root at left):");
+        Node<K, V> r = root;
+        if (r == null) System.out.println("  (empty)");
+        else printSubtree(r, "", true);
+        System.out.println("---- End tree ----");
+    }
+
+    private void printSubtree(Node<K, V> n, String prefix, boolean isRoot)
+    {
+        if (n.right != null) printSubtree(n.right, prefix + (isRoot ? "" : "│   "), false);
+        System.out.println(prefix + (isRoot ? "" : "└── ") + String.format("(%s:%s)[h=%d]", n.key, n.value, n.nodeHeight));
+        if (n.left != null) printSubtree(n.left, prefix + (isRoot ? "" : "    "), false);
+    }
+
+    public void printInOrder()
+    {
+        System.out.print("In-order: ");
+        for (Map.Entry<K, V> e : this) System.out.print(e.getKey() + " ");
+        System.out.println();
+    }
+
+    // Main - demonstrates that snapshots are unaffected by later writes
+    public static void main(String[] args)
+    {
+        PersistentAVLTreeMap<Integer, String> map = new PersistentAVLTreeMap<>();
+        for (int k : new int[] {30, 20, 40, 10, 25, 35, 50}) map.put(k, "v" + k);
+
+        PersistentAVLTreeMap<Integer, String> snap = map.snapshot();
+
+        map.put(5, "v5");
+        map.put(25, "changed");
+        map.remove(40);
+
+        System.out.println("Writer's current version:");
+        map.printTree();
+        map.printInOrder();
+
+        System.out.println("\nSnapshot taken before the writes:");
+        snap.printTree();
+        snap.printInOrder();
+        System.out.println("snapshot get(25) = " + snap.get(25) + ", current get(25) = " + map.get(25));
+
+        try
+        {
+            snap.put(1, "x");
+        }
+        catch (UnsupportedOperationException e)
+        {
+            System.out.println("snapshot.put -> " + e.getMessage());
+        }
+    }
+}
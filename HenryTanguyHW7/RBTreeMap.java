@@ -1,4 +1,18 @@
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * RBTreeMap<K,V>
@@ -8,6 +22,12 @@ import java.util.Comparator;
  * • Generic: works for any key/value types.
  * • Keys can use either natural ordering or a custom Comparator.
  * • Supports put(), get(), remove(), containsKey(), printTree().
+ * • putIfAbsent(), computeIfAbsent(), compute(), merge() in a single descent.
+ * • getAll()/putAll() batches: sorted internally and served along a shared path.
+ * • Ascending/descending fail-fast iterators and entryStream() (parallel-capable).
+ * • Optional TreeStats counters (comparisons, rotations, recolors, fix-up steps).
+ * • Optional finger (setFingerEnabled) that starts each search near the last
+ *   node accessed, for nearly sorted access patterns.
  *
  * Internal logic follows the standard CLRS red-black algorithms
  * with a NIL sentinel node to simplify rotation and fix-up code.
@@ -15,30 +35,37 @@ import java.util.Comparator;
  * Red = true, Black = false
  */
 
-public class RBTreeMap<K, V> 
+public class RBTreeMap<K, V> implements Iterable<Map.Entry<K, V>>
 {
 
     /* ---------------- Sentinel node ---------------- */
     // A single shared NIL node replaces all null children.
     // It is always black and simplifies boundary cases.
-    private final Node NIL = new Node(null, null, BLACK);
+    final Node NIL = new Node(null, null, BLACK);
 
     /* ---------------- Tree state ---------------- */
-    private Node root = NIL;
+    Node root = NIL;
     private int size = 0;
+    private int modCount = 0; // structural changes, checked by iterators
     private final Comparator<? super K> comp;
+    private TreeStats stats; // null unless enableStats() was called
+    private final boolean augmented; // subclass keeps Node.agg up to date
+    private boolean fingerEnabled;   // see Finger search
+    private Node finger = NIL;       // last node accessed, while fingerEnabled
 
     /* ---------------- Color constants ---------------- */
     private static final boolean RED = true;
     private static final boolean BLACK = false;
 
     /* ---------------- Node definition ---------------- */
-    private class Node 
+    // Package-private so augmented subclasses in this package can read the tree.
+    class Node 
     {
         K key;
         V value;
         Node left = NIL, right = NIL, parent = NIL;
         boolean color; // true = RED, false = BLACK
+        Object agg;    // per-subtree summary, only used by augmented subclasses
 
         Node(K k, V v, boolean c) 
         {
@@ -49,16 +76,24 @@ public class RBTreeMap<K, V>
     }
 
     /* ---------------- Constructors ---------------- */
-    public RBTreeMap() { this.comp = null; }
+    public RBTreeMap() { this(null, false); }
 
-    public RBTreeMap(Comparator<? super K> comparator) { this.comp = comparator; }
+    public RBTreeMap(Comparator<? super K> comparator) { this(comparator, false); }
+
+    // For subclasses that maintain Node.agg (see Augmentation hooks)
+    RBTreeMap(Comparator<? super K> comparator, boolean augmented) 
+    {
+        this.comp = comparator;
+        this.augmented = augmented;
+    }
 
     /* ---------------- Key comparison helper ---------------- */
     @SuppressWarnings("unchecked")
-    private int compare(K a, K b) 
+    int compare(K a, K b) 
     {
         if (a == null || b == null)
             throw new IllegalArgumentException("Keys must be non-null");
+        if (stats != null) stats.comparisons++;
         if (comp != null) return comp.compare(a, b);
         return ((Comparable<? super K>) a).compareTo(b);
     }
@@ -72,38 +107,237 @@ public class RBTreeMap<K, V>
     {
         if (key == null) throw new IllegalArgumentException("Key cannot be null");
 
-        Node z = new Node(key, value, RED); // new node starts red
-        z.left = z.right = z.parent = NIL;
+        Probe p = findOrParent(key);
+        if (p.found()) 
+        {
+            // key already exists → replace value only
+            V old = p.node.value;
+            setValue(p.node, value);
+            return old;
+        }
+        insertAt(p.node, p.cmp, key, value);
+        return null;
+    }
+
+    /* ---------------- Single-descent updates ---------------- */
+    // Each of these finds the key or its insertion point in one descent,
+    // allocates a Node only when a key is really added, and runs insertFixup
+    // only in that case. The functions passed in must not modify this map.
+
+    // Insert value only if key is absent (or mapped to null); returns the previous value
+    public V putIfAbsent(K key, V value) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Probe p = findOrParent(key);
+        if (p.found()) 
+        {
+            V old = p.node.value;
+            if (old == null) setValue(p.node, value);
+            return old;
+        }
+        insertAt(p.node, p.cmp, key, value);
+        return null;
+    }
+
+    // Return the value for key, computing and inserting it first if absent; a null result inserts nothing
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Probe p = findOrParent(key);
+        Node x = p.node;
+        boolean found = p.found();
+        if (found && x.value != null) return x.value;
+        V value = mappingFunction.apply(key);
+        if (value == null) return null;
+        if (found) setValue(x, value);
+        else insertAt(x, p.cmp, key, value);
+        return value;
+    }
+
+    // Replace the mapping for key with remappingFunction(key, old); a null result removes it
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Probe p = findOrParent(key);
+        Node x = p.node;
+        boolean found = p.found();
+        V value = remappingFunction.apply(key, found ? x.value : null);
+        if (value == null) 
+        {
+            if (found) delete(x);
+            return null;
+        }
+        if (found) setValue(x, value);
+        else insertAt(x, p.cmp, key, value);
+        return value;
+    }
+
+    // Insert value if absent, otherwise combine with remappingFunction(old, value); a null result removes the key
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) 
+    {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        Probe p = findOrParent(key);
+        Node x = p.node;
+        if (!p.found()) 
+        {
+            insertAt(x, p.cmp, key, value);
+            return value;
+        }
+        V newValue = (x.value == null) ? value : remappingFunction.apply(x.value, value);
+        if (newValue == null) delete(x);
+        else setValue(x, newValue);
+        return newValue;
+    }
 
-        Node y = NIL; // will become parent of z
-        Node x = root;
+    /* ---------------- Batched access ---------------- */
+    // getAll/putAll sort the batch and walk it in key order. Each key's search
+    // starts from the node where the previous one ended and climbs only as far
+    // as needed (see Finger search), so consecutive keys share the upper part of
+    // their path instead of each descending from the root. Existing keys only
+    // get their value replaced; insertFixup runs for new keys alone.
+    // A batch much sparser than the tree shares almost no path and would only
+    // pay for the sort, so it is served key by key instead.
+
+    // Below one batch key per this many tree keys, batches are not sorted
+    private static final int SPARSE_BATCH = 256;
+
+    // Values for keys, in the order given (null where a key is absent).
+    // Like get, this writes nothing to the map unless the finger is enabled.
+    public List<V> getAll(K[] keys) 
+    {
+        @SuppressWarnings("unchecked")
+        V[] result = (V[]) new Object[keys.length];
+        if ((long) keys.length * SPARSE_BATCH < size) 
+        {
+            for (int i = 0; i < keys.length; i++) result[i] = get(keys[i]);
+            return Arrays.asList(result);
+        }
+        Integer[] order = sortedOrder(keys);
+        Node at = NIL;
+        for (Integer i : order) 
+        {
+            K key = keys[i];
+            // same descent as getNode; at keeps the last node visited for the next climb
+            Node cur = (at == NIL) ? root : climb(at, key);
+            while (cur != NIL) 
+            {
+                at = cur;
+                int cmp = compare(key, cur.key);
+                if (cmp == 0) break;
+                cur = (cmp < 0) ? cur.left : cur.right;
+            }
+            if (cur != NIL) result[i] = cur.value;
+        }
+        if (fingerEnabled) finger = at;
+        return Arrays.asList(result);
+    }
 
-        // Standard BST insertion search
+    // Insert or replace every mapping of m
+    public void putAll(Map<? extends K, ? extends V> m) 
+    {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map.Entry<K, V>[] batch = m.entrySet().toArray(new Map.Entry[0]);
+        @SuppressWarnings("unchecked")
+        K[] keys = (K[]) new Object[batch.length];
+        for (int i = 0; i < batch.length; i++) keys[i] = batch[i].getKey();
+        if ((long) batch.length * SPARSE_BATCH < size) 
+        {
+            for (Map.Entry<K, V> e : batch) put(e.getKey(), e.getValue());
+            return;
+        }
+
+        Node at = NIL;
+        for (Integer i : sortedOrder(keys)) 
+        {
+            K key = keys[i];
+            V value = batch[i].getValue();
+            Probe p = findOrParentFrom((at == NIL) ? root : climb(at, key), key);
+            at = p.node;
+            if (p.found()) setValue(at, value);
+            else at = insertAt(at, p.cmp, key, value);
+        }
+        if (fingerEnabled) finger = at;
+    }
+
+    // Indices of keys in ascending key order (stable, so duplicates keep their order)
+    private Integer[] sortedOrder(K[] keys) 
+    {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> compare(keys[a], keys[b]));
+        return order;
+    }
+
+    // Result of a search: the node holding the key (cmp == 0), or the parent to
+    // insert under with cmp giving the side; node is NIL for an empty tree
+    private class Probe 
+    {
+        final Node node;
+        final int cmp;
+
+        Probe(Node node, int cmp) 
+        {
+            this.node = node;
+            this.cmp = cmp;
+        }
+
+        boolean found() 
+        {
+            return cmp == 0 && node != NIL;
+        }
+    }
+
+    /**
+     * Standard BST search that stops at the key or at its would-be parent.
+     */
+    private Probe findOrParent(K key) 
+    {
+        Probe p = findOrParentFrom(searchStart(key), key);
+        if (fingerEnabled) finger = p.node;
+        return p;
+    }
+
+    // findOrParent starting at x instead of the root; x's subtree must be where key belongs
+    private Probe findOrParentFrom(Node x, K key) 
+    {
+        Node y = NIL;
+        int cmp = 0;
         while (x != NIL) 
         {
             y = x;
-            int cmp = compare(z.key, x.key);
-            if (cmp == 0) 
-            {
-                // key already exists → replace value only
-                V old = x.value;
-                x.value = value;
-                return old;
-            } else if (cmp < 0) x = x.left;
-            else x = x.right;
+            cmp = compare(key, x.key);
+            if (cmp == 0) break;
+            x = (cmp < 0) ? x.left : x.right;
         }
+        return new Probe(y, cmp);
+    }
 
-        // Link new node under its parent
-        z.parent = y;
-        if (y == NIL) root = z;              // tree was empty
-        else if (compare(z.key, y.key) < 0) y.left = z;
-        else y.right = z;
+    // Link a new red node under parent on the side given by cmp, then restore Red-Black properties; returns the node
+    private Node insertAt(Node parent, int cmp, K key, V value) 
+    {
+        Node z = new Node(key, value, RED); // new node starts red, children/parent NIL
+        z.parent = parent;
+        if (parent == NIL) root = z;         // tree was empty
+        else if (cmp < 0) parent.left = z;
+        else parent.right = z;
 
         size++;
+        modCount++;
+        if (fingerEnabled) finger = z;
+        if (stats != null) stats.recordHeight(depthOf(z));
+        updateAggPath(z);
 
-        // Restore Red-Black properties
         insertFixup(z);
-        return null;
+        return z;
+    }
+
+    // Number of nodes on the path from root to n (only used for stats)
+    private int depthOf(Node n) 
+    {
+        int d = 0;
+        for (; n != NIL; n = n.parent) d++;
+        return d;
     }
 
     /**
@@ -114,6 +348,7 @@ public class RBTreeMap<K, V>
     {
         while (z.parent.color == RED) 
         {
+            if (stats != null) stats.retraceSteps++;
             if (z.parent == z.parent.parent.left) 
             {
                 // Parent is left child of grandparent
@@ -121,9 +356,9 @@ public class RBTreeMap<K, V>
                 if (y.color == RED) 
                 {
                     // Case 1: uncle red → recolor and move up
-                    z.parent.color = BLACK;
-                    y.color = BLACK;
-                    z.parent.parent.color = RED;
+                    setColor(z.parent, BLACK);
+                    setColor(y, BLACK);
+                    setColor(z.parent.parent, RED);
                     z = z.parent.parent;
                 } 
                 else 
@@ -136,8 +371,8 @@ public class RBTreeMap<K, V>
                         leftRotate(z);
                     }
                     // Case 3: line → recolor + rotate right
-                    z.parent.color = BLACK;
-                    z.parent.parent.color = RED;
+                    setColor(z.parent, BLACK);
+                    setColor(z.parent.parent, RED);
                     rightRotate(z.parent.parent);
                 }
             } 
@@ -147,9 +382,9 @@ public class RBTreeMap<K, V>
                 Node y = z.parent.parent.left; // uncle
                 if (y.color == RED) 
                 {
-                    z.parent.color = BLACK;
-                    y.color = BLACK;
-                    z.parent.parent.color = RED;
+                    setColor(z.parent, BLACK);
+                    setColor(y, BLACK);
+                    setColor(z.parent.parent, RED);
                     z = z.parent.parent;
                 } 
                 else 
@@ -159,14 +394,14 @@ public class RBTreeMap<K, V>
                         z = z.parent;
                         rightRotate(z);
                     }
-                    z.parent.color = BLACK;
-                    z.parent.parent.color = RED;
+                    setColor(z.parent, BLACK);
+                    setColor(z.parent.parent, RED);
                     leftRotate(z.parent.parent);
                 }
             }
         }
         // Root must always be black
-        root.color = BLACK;
+        setColor(root, BLACK);
     }
 
     /* ---------------- Rotation helpers ---------------- */
@@ -177,6 +412,7 @@ public class RBTreeMap<K, V>
     //        y       x   β
     private void leftRotate(Node x) 
     {
+        if (stats != null) stats.rotations++;
         Node y = x.right;
         x.right = y.left;
         if (y.left != NIL) y.left.parent = x;
@@ -188,11 +424,17 @@ public class RBTreeMap<K, V>
 
         y.left = x;
         x.parent = y;
+        if (augmented) 
+        {
+            updateAgg(x);
+            updateAgg(y);
+        }
     }
 
     // Rotate right around x (mirror of leftRotate)
     private void rightRotate(Node x) 
     {
+        if (stats != null) stats.rotations++;
         Node y = x.left;
         x.left = y.right;
         if (y.right != NIL) y.right.parent = x;
@@ -204,6 +446,11 @@ public class RBTreeMap<K, V>
 
         y.right = x;
         x.parent = y;
+        if (augmented) 
+        {
+            updateAgg(x);
+            updateAgg(y);
+        }
     }
 
     public V get(K key) 
@@ -219,15 +466,18 @@ public class RBTreeMap<K, V>
 
     private Node getNode(K key) 
     {
-        Node cur = root;
+        Node cur = searchStart(key);
+        Node last = NIL;
         while (cur != NIL) 
         {
+            last = cur;
             int cmp = compare(key, cur.key);
-            if (cmp == 0) return cur;
+            if (cmp == 0) break;
             if (cmp < 0) cur = cur.left;
             else cur = cur.right;
         }
-        return NIL;
+        if (fingerEnabled) finger = last;
+        return cur;
     }
 
     public V remove(K key) 
@@ -285,6 +535,10 @@ public class RBTreeMap<K, V>
         }
 
         size--;
+        modCount++;
+        if (finger == z) finger = x.parent; // z has left the tree; x.parent is where it was
+        // Summaries change from the lowest relinked node up; fix-up rotations keep them right
+        updateAggPath(x.parent);
         // Fix double-black violations
         if (yOriginalColor == BLACK) deleteFixup(x);
     }
@@ -297,21 +551,22 @@ public class RBTreeMap<K, V>
     {
         while (x != root && x.color == BLACK) 
         {
+            if (stats != null) stats.retraceSteps++;
             if (x == x.parent.left) 
             {
                 Node w = x.parent.right; // sibling
                 if (w.color == RED) 
                 {
                     // Case 1: sibling red → rotate & recolor
-                    w.color = BLACK;
-                    x.parent.color = RED;
+                    setColor(w, BLACK);
+                    setColor(x.parent, RED);
                     leftRotate(x.parent);
                     w = x.parent.right;
                 }
                 if (w.left.color == BLACK && w.right.color == BLACK) 
                 {
                     // Case 2: both nephews black → recolor sibling
-                    w.color = RED;
+                    setColor(w, RED);
                     x = x.parent;
                 } 
                 else 
@@ -319,15 +574,15 @@ public class RBTreeMap<K, V>
                     if (w.right.color == BLACK)
                     {
                         // Case 3: far nephew black → rotate to case 4
-                        w.left.color = BLACK;
-                        w.color = RED;
+                        setColor(w.left, BLACK);
+                        setColor(w, RED);
                         rightRotate(w);
                         w = x.parent.right;
                     }
                     // Case 4: far nephew red → final rotation
-                    w.color = x.parent.color;
-                    x.parent.color = BLACK;
-                    w.right.color = BLACK;
+                    setColor(w, x.parent.color);
+                    setColor(x.parent, BLACK);
+                    setColor(w.right, BLACK);
                     leftRotate(x.parent);
                     x = root;
                 }
@@ -338,38 +593,112 @@ public class RBTreeMap<K, V>
                 Node w = x.parent.left;
                 if (w.color == RED) 
                 {
-                    w.color = BLACK;
-                    x.parent.color = RED;
+                    setColor(w, BLACK);
+                    setColor(x.parent, RED);
                     rightRotate(x.parent);
                     w = x.parent.left;
                 }
                 if (w.right.color == BLACK && w.left.color == BLACK) 
                 {
-                    w.color = RED;
+                    setColor(w, RED);
                     x = x.parent;
                 } 
                 else 
                 {
                     if (w.left.color == BLACK) 
                     {
-                        w.right.color = BLACK;
-                        w.color = RED;
+                        setColor(w.right, BLACK);
+                        setColor(w, RED);
                         leftRotate(w);
                         w = x.parent.left;
                     }
-                    w.color = x.parent.color;
-                    x.parent.color = BLACK;
-                    w.left.color = BLACK;
+                    setColor(w, x.parent.color);
+                    setColor(x.parent, BLACK);
+                    setColor(w.left, BLACK);
                     rightRotate(x.parent);
                     x = root;
                 }
             }
         }
-        x.color = BLACK;
+        setColor(x, BLACK);
+    }
+
+    /* ---------------- Finger search ---------------- */
+    // With the finger on, a search starts from the last node accessed instead of
+    // the root: it climbs through parent links only until the subtree below must
+    // contain the key, then descends as usual. Keys d positions apart in sorted
+    // order then cost O(log d) comparisons, so sorted and nearly sorted access
+    // avoids most of the descent from the root. Random access pays up to one
+    // extra climb, so the finger is off by default. Lookups update the finger
+    // too, so with it on even get() writes to the map.
+
+    public void setFingerEnabled(boolean enabled) 
+    {
+        fingerEnabled = enabled;
+        finger = NIL;
+    }
+
+    public boolean isFingerEnabled() { return fingerEnabled; }
+
+    // Where a search for key begins: the root, or the lowest ancestor of the finger whose subtree must hold key
+    private Node searchStart(K key) 
+    {
+        return (!fingerEnabled || finger == NIL) ? root : climb(finger, key);
+    }
+
+    // Lowest ancestor of x (or x itself) whose subtree must hold key
+    private Node climb(Node x, K key) 
+    {
+        int cmp = compare(key, x.key);
+        if (cmp == 0) return x;
+        while (x.parent != NIL) 
+        {
+            Node p = x.parent;
+            // Climbing out of a left child, p.key bounds x's subtree from above, so one
+            // comparison tells whether a larger key is still inside; out of a right child
+            // p.key is a lower bound and says nothing about it (mirror for smaller keys).
+            if ((p.left == x) == (cmp > 0)) 
+            {
+                int c = compare(key, p.key);
+                if (c == 0) return p;
+                if ((c < 0) == (cmp > 0)) return x;
+            }
+            x = p;
+        }
+        return x;
+    }
+
+    /* ---------------- Augmentation hooks ---------------- */
+    // Subclasses that keep a per-subtree summary in Node.agg (IntervalRBTree, AggregateRBTreeMap)
+    // pass augmented = true and override updateAgg. Rotations recompute the two
+    // rotated nodes; inserts, deletes and value changes recompute the path to the
+    // root. For the plain map these are never called.
+
+    // Recompute n.agg from n and its children (never called on NIL)
+    void updateAgg(Node n) { }
+
+    // Recompute summaries from n up to the root
+    private void updateAggPath(Node n) 
+    {
+        if (!augmented) return;
+        for (; n != NIL; n = n.parent) updateAgg(n);
+    }
+
+    private void setValue(Node x, V value) 
+    {
+        x.value = value;
+        updateAggPath(x);
     }
 
     /* ---------------- Helper utilities ---------------- */
 
+    // Color assignment used by the fix-up routines (counted as a recolor when it changes)
+    private void setColor(Node n, boolean c) 
+    {
+        if (stats != null && n.color != c) stats.recolors++;
+        n.color = c;
+    }
+
     // Replace subtree rooted at u with v
     private void transplant(Node u, Node v) 
     {
@@ -386,6 +715,199 @@ public class RBTreeMap<K, V>
         return x;
     }
 
+    // Maximum node in a subtree
+    private Node maximum(Node x) 
+    {
+        while (x.right != NIL) x = x.right;
+        return x;
+    }
+
+    // In-order successor through parent links (NIL if x is the last node)
+    private Node successor(Node x) 
+    {
+        if (x.right != NIL) return minimum(x.right);
+        Node y = x.parent;
+        while (y != NIL && x == y.right) 
+        {
+            x = y;
+            y = y.parent;
+        }
+        return y;
+    }
+
+    // In-order predecessor, mirror of successor
+    private Node predecessor(Node x) 
+    {
+        if (x.left != NIL) return maximum(x.left);
+        Node y = x.parent;
+        while (y != NIL && x == y.left) 
+        {
+            x = y;
+            y = y.parent;
+        }
+        return y;
+    }
+
+    /* ---------------- Iteration ---------------- */
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() { return ascendingIterator(); }
+
+    public Iterator<Map.Entry<K, V>> ascendingIterator() 
+    {
+        return new EntryIterator(root == NIL ? NIL : minimum(root), true);
+    }
+
+    public Iterator<Map.Entry<K, V>> descendingIterator() 
+    {
+        return new EntryIterator(root == NIL ? NIL : maximum(root), false);
+    }
+
+    /**
+     * Walks successor (or predecessor) links: amortized O(1) per step, since every
+     * edge is crossed at most twice over a full traversal. Fails fast if the map is
+     * structurally modified other than through remove().
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> 
+    {
+        private Node next;
+        private Node lastReturned = NIL;
+        private final boolean ascending;
+        private int expectedModCount = modCount;
+
+        EntryIterator(Node first, boolean ascending) 
+        {
+            this.next = first;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public boolean hasNext() { return next != NIL; }
+
+        @Override
+        public Map.Entry<K, V> next() 
+        {
+            if (next == NIL) throw new NoSuchElementException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            lastReturned = next;
+            next = ascending ? successor(next) : predecessor(next);
+            return new AbstractMap.SimpleImmutableEntry<>(lastReturned.key, lastReturned.value);
+        }
+
+        @Override
+        public void remove() 
+        {
+            if (lastReturned == NIL) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // delete() relinks nodes rather than copying keys, so next stays valid
+            delete(lastReturned);
+            expectedModCount = modCount;
+            lastReturned = NIL;
+        }
+    }
+
+    // Stream of entries in key order; .parallel() splits the work by subtree
+    public Stream<Map.Entry<K, V>> entryStream() 
+    {
+        return StreamSupport.stream(new EntrySpliterator(NIL, NIL, 0, -1, 0), false);
+    }
+
+    /**
+     * Spliterator over the in-order range [current, fence) (fence NIL = to the end).
+     * trySplit hands off the left part of the range at the root of the subtree that
+     * covers it: the whole tree first, then the right child of a right part or the
+     * left child of the fence for a left part, so each split halves the subtree
+     * being walked. Sizes after the first split are estimates (est halves each time).
+     */
+    private class EntrySpliterator implements Spliterator<Map.Entry<K, V>> 
+    {
+        private Node current;   // next node to visit (NIL until initialized / when done)
+        private final Node fence;
+        private int side;       // 0: whole tree, -1: left part, +1: right part
+        private int est;        // size estimate, -1 until initialized
+        private int expectedModCount;
+
+        EntrySpliterator(Node origin, Node fence, int side, int est, int expectedModCount) 
+        {
+            this.current = origin;
+            this.fence = fence;
+            this.side = side;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        // binds to the map's current contents on first use
+        private int getEstimate() 
+        {
+            if (est < 0) 
+            {
+                current = (root == NIL) ? NIL : minimum(root);
+                est = size;
+                expectedModCount = modCount;
+            }
+            return est;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() 
+        {
+            if (est < 0) getEstimate();
+            Node e = current, f = fence;
+            Node s;
+            if (e == NIL || e == f) s = NIL;        // empty
+            else if (side == 0) s = root;           // whole tree: split at the root
+            else if (side > 0) s = e.right;         // right part
+            else s = (f != NIL) ? f.left : NIL;     // left part
+            if (s != NIL && s != e && s != f && compare(e.key, s.key) < 0) 
+            {
+                side = 1;
+                current = s;
+                return new EntrySpliterator(e, s, -1, est >>>= 1, expectedModCount);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) 
+        {
+            if (action == null) throw new NullPointerException();
+            if (est < 0) getEstimate();
+            Node e = current;
+            if (e == NIL || e == fence) return false;
+            current = successor(e);
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(e.key, e.value));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) 
+        {
+            if (action == null) throw new NullPointerException();
+            if (est < 0) getEstimate();
+            Node e = current, f = fence;
+            current = f;
+            for (; e != NIL && e != f; e = successor(e)) 
+                action.accept(new AbstractMap.SimpleImmutableEntry<>(e.key, e.value));
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public long estimateSize() { return getEstimate(); }
+
+        @Override
+        public int characteristics() 
+        {
+            return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED;
+        }
+
+        @Override
+        public Comparator<? super Map.Entry<K, V>> getComparator() 
+        {
+            return (a, b) -> compare(a.getKey(), b.getKey());
+        }
+    }
+
     /** Print tree sideways with node colors for visualization */
     public void printTree() 
     {
@@ -406,6 +928,21 @@ public class RBTreeMap<K, V>
 
     public int size() { return size; }
 
+    /* ---------------- Instrumentation ---------------- */
+
+    // Start counting work into a fresh TreeStats (returned; also available via stats())
+    public TreeStats enableStats() 
+    {
+        stats = new TreeStats();
+        return stats;
+    }
+
+    // Stop counting; the hot paths go back to a single null check
+    public void disableStats() { stats = null; }
+
+    // Current counters, or null when disabled
+    public TreeStats stats() { return stats; }
+
     public static void main(String[] args) 
     {
         RBTreeMap<Integer, String> map = new RBTreeMap<>();
@@ -429,5 +966,28 @@ public class RBTreeMap<K, V>
         }
 
         System.out.println("\nFinal size: " + map.size());
+
+        // Counting with merge: one descent per word, a Node only for new words
+        RBTreeMap<String, Integer> counts = new RBTreeMap<>();
+        for (String w : "the cat and the dog and the bird".split(" ")) counts.merge(w, 1, Integer::sum);
+        System.out.println("\nWord counts via merge:");
+        counts.printTree();
+
+        // Iteration in both directions and a parallel stream over the entries
+        System.out.print("Descending: ");
+        for (Iterator<Map.Entry<String, Integer>> it = counts.descendingIterator(); it.hasNext(); ) 
+            System.out.print(it.next().getKey() + " ");
+        RBTreeMap<Integer, Integer> squares = new RBTreeMap<>();
+        for (int i = 1; i <= 100_000; i++) squares.put(i, i);
+        long sum = squares.entryStream().parallel().mapToLong(e -> (long) e.getValue() * e.getValue()).sum();
+        System.out.println("\nSum of squares 1..100000 via parallel entryStream: " + sum);
+
+        // Same workload as the AVLTreeMap demo, for comparing the counters
+        RBTreeMap<Integer, Integer> big = new RBTreeMap<>();
+        TreeStats stats = big.enableStats();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 100_000; i++) big.put(rnd.nextInt(1_000_000), i);
+        for (int i = 0; i < 50_000; i++) big.remove(rnd.nextInt(1_000_000));
+        System.out.println("\nStats after 100k random puts and 50k removes: " + stats);
     }
 }
@@ -0,0 +1,59 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SnapshotSerializer<T>
+ *
+ * Converts keys or values to bytes for on-disk tree formats (MappedAVLSnapshot).
+ * read() must use absolute ByteBuffer gets only, so one mapped buffer can be
+ * shared by many reader threads without touching its position.
+ */
+
+public interface SnapshotSerializer<T>
+{
+    byte[] toBytes(T value);
+
+    T read(ByteBuffer buf, int offset, int length);
+
+    SnapshotSerializer<Integer> INTEGER = new SnapshotSerializer<Integer>()
+    {
+        public byte[] toBytes(Integer value)
+        {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        public Integer read(ByteBuffer buf, int offset, int length)
+        {
+            return buf.getInt(offset);
+        }
+    };
+
+    SnapshotSerializer<Long> LONG = new SnapshotSerializer<Long>()
+    {
+        public byte[] toBytes(Long value)
+        {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        public Long read(ByteBuffer buf, int offset, int length)
+        {
+            return buf.getLong(offset);
+        }
+    };
+
+    // UTF-8 strings
+    SnapshotSerializer<String> STRING = new SnapshotSerializer<String>()
+    {
+        public byte[] toBytes(String value)
+        {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String read(ByteBuffer buf, int offset, int length)
+        {
+            byte[] bytes = new byte[length];
+            buf.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
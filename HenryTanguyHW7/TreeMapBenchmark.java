@@ -0,0 +1,112 @@
+import java.util.Random;
+
+/**
+ * TreeMapBenchmark
+ *
+ * Compares BPlusTreeMap against RBTreeMap and AVLTreeMap at 1e5, 1e6 and 1e7 keys.
+ * For each size and map: insert all keys in random order, look each one up again
+ * in a different random order, then remove half of them. Times are ns per operation.
+ *
+ * Keys are pre-boxed Integers shared by all maps, so boxing is not measured.
+ * The 1e7 run needs a large heap (e.g. -Xmx4g).
+ *
+ * Usage: java TreeMapBenchmark [size ...]   (default 100000 1000000 10000000)
+ */
+
+public class TreeMapBenchmark
+{
+    // Minimal common surface of the maps under test
+    private interface Target
+    {
+        void put(Integer key);
+        Object get(Integer key);
+        void remove(Integer key);
+    }
+
+    private static Target bplus()
+    {
+        BPlusTreeMap<Integer, Integer> map = new BPlusTreeMap<>();
+        return new Target()
+        {
+            public void put(Integer key) { map.put(key, key); }
+            public Object get(Integer key) { return map.get(key); }
+            public void remove(Integer key) { map.remove(key); }
+        };
+    }
+
+    private static Target redBlack()
+    {
+        RBTreeMap<Integer, Integer> map = new RBTreeMap<>();
+        return new Target()
+        {
+            public void put(Integer key) { map.put(key, key); }
+            public Object get(Integer key) { return map.get(key); }
+            public void remove(Integer key) { map.remove(key); }
+        };
+    }
+
+    private static Target avl()
+    {
+        AVLTreeMap<Integer, Integer> map = new AVLTreeMap<>();
+        return new Target()
+        {
+            public void put(Integer key) { map.put(key, key); }
+            public Object get(Integer key) { return map.get(key); }
+            public void remove(Integer key) { map.remove(key); }
+        };
+    }
+
+    private static Integer[] shuffledKeys(int n, long seed)
+    {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = i * 7; // spread out, all distinct
+        Random rnd = new Random(seed);
+        for (int i = n - 1; i > 0; i--)
+        {
+            int j = rnd.nextInt(i + 1);
+            Integer t = keys[i];
+            keys[i] = keys[j];
+            keys[j] = t;
+        }
+        return keys;
+    }
+
+    private static void run(String name, Target map, Integer[] insertOrder, Integer[] lookupOrder)
+    {
+        int n = insertOrder.length;
+        long t0 = System.nanoTime();
+        for (Integer k : insertOrder) map.put(k);
+        long t1 = System.nanoTime();
+        int hits = 0;
+        for (Integer k : lookupOrder) if (map.get(k) != null) hits++;
+        long t2 = System.nanoTime();
+        for (int i = 0; i < n / 2; i++) map.remove(lookupOrder[i]);
+        long t3 = System.nanoTime();
+        if (hits != n) throw new IllegalStateException(name + ": lookups missed keys");
+        System.out.printf("%-12s %10.1f %10.1f %10.1f%n", name,
+                (t1 - t0) / (double) n, (t2 - t1) / (double) n, (t3 - t2) / (n / 2.0));
+    }
+
+    public static void main(String[] args)
+    {
+        int[] sizes = {100_000, 1_000_000, 10_000_000};
+        if (args.length > 0)
+        {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int n : sizes)
+        {
+            Integer[] insertOrder = shuffledKeys(n, 1);
+            Integer[] lookupOrder = shuffledKeys(n, 2);
+            System.out.println("\nkeys: " + n + "  (ns/op)");
+            System.out.printf("%-12s %10s %10s %10s%n", "map", "put", "get", "remove");
+            // one warm-up pass per size keeps the first contender from paying for JIT compilation
+            run("(warm-up)", bplus(), insertOrder, lookupOrder);
+            run("BPlusTree", bplus(), insertOrder, lookupOrder);
+            run("RBTree", redBlack(), insertOrder, lookupOrder);
+            run("AVLTree", avl(), insertOrder, lookupOrder);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * TreeStats
+ *
+ * Work counters shared by AVLTreeMap and RBTreeMap.
+ * A map only counts while stats are enabled (enableStats()); when disabled the
+ * map holds no TreeStats at all and each counting site is a single null check.
+ *
+ * - comparisons:    key comparisons made by any operation
+ * - rotations:      single rotations (a double rotation counts as two)
+ * - recolors:       node color changes during red-black fix-up (always 0 for AVL)
+ * - retraceSteps:   nodes whose balance was re-examined after an insert/delete
+ *                   (AVL: height/balance updates; RB: fix-up loop iterations)
+ * - retraceSkipped: AVL ancestors that early-exit retracing did not re-examine
+ *                   (they only get their subtree size bumped)
+ * - maxHeight:      AVL: largest root height seen after an update;
+ *                   RB: longest root-to-node path taken by an insert
+ *
+ * Not thread-safe: enable stats only on a map used by one thread at a time.
+ */
+
+public class TreeStats
+{
+    long comparisons;
+    long rotations;
+    long recolors;
+    long retraceSteps;
+    long retraceSkipped;
+    int maxHeight;
+
+    public long comparisons() { return comparisons; }
+
+    public long rotations() { return rotations; }
+
+    public long recolors() { return recolors; }
+
+    public long retraceSteps() { return retraceSteps; }
+
+    public long retraceSkipped() { return retraceSkipped; }
+
+    public int maxHeight() { return maxHeight; }
+
+    void recordHeight(int h)
+    {
+        if (h > maxHeight) maxHeight = h;
+    }
+
+    public void reset()
+    {
+        comparisons = rotations = recolors = retraceSteps = retraceSkipped = 0;
+        maxHeight = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("comparisons=%d rotations=%d recolors=%d retraceSteps=%d retraceSkipped=%d maxHeight=%d",
+                comparisons, rotations, recolors, retraceSteps, retraceSkipped, maxHeight);
+    }
+}